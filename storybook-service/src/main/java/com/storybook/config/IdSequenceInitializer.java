@@ -0,0 +1,50 @@
+package com.storybook.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * story_pages and story_styles moved from IDENTITY to pooled sequences. On databases
+ * created before that, the new sequences start at 1 while the tables already hold rows,
+ * so move each sequence past the current max id before the startup sync inserts anything.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceInitializer implements ApplicationRunner {
+
+    // Must match allocationSize of the @SequenceGenerator on the entity
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        alignSequence("story_pages", "story_pages_seq");
+        alignSequence("story_styles", "story_styles_seq");
+    }
+
+    private void alignSequence(String table, String sequence) {
+        try {
+            // Returns no row when the sequence is already ahead of the table
+            List<Long> moved = jdbcTemplate.queryForList(
+                    "SELECT setval('" + sequence + "', m.max_id + " + ALLOCATION_SIZE + ") "
+                            + "FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM " + table + ") m, " + sequence + " s "
+                            + "WHERE s.last_value < m.max_id + " + ALLOCATION_SIZE,
+                    Long.class);
+            if (!moved.isEmpty()) {
+                log.info("Moved sequence {} past existing {} ids (now {}).", sequence, table, moved.get(0));
+            }
+        } catch (Exception e) {
+            log.warn("Could not align sequence {} with table {}: {}", sequence, table, e.getMessage());
+        }
+    }
+}
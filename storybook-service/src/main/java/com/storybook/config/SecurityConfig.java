@@ -1,7 +1,9 @@
 package com.storybook.config;
 
 import com.storybook.security.JwtAuthenticationFilter;
+import com.storybook.security.PasswordHashingExecutor;
 import com.storybook.security.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,10 +31,11 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsService); // Rehash on login when the strength went up
         return authProvider;
     }
 
@@ -42,26 +45,30 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor) {
+        return new BCryptPasswordEncoder(passwordHashingExecutor.strength());
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider) throws Exception {
         http.cors(Customizer.withDefaults()) // Enable CORS
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Completion of an already authorized async request (auth endpoints)
                         .requestMatchers(HttpMethod.GET, "/api/stories", "/api/stories/**").permitAll()
+                        .requestMatchers(HttpMethod.HEAD, "/api/stories/*/bundle").permitAll() // Size/ETag probe before a download
                         .requestMatchers(HttpMethod.POST, "/api/auth/login", "/api/auth/register").permitAll() // Explicit POST
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/stories/callback").permitAll()
                         .requestMatchers("/stories/**").permitAll()
                         .requestMatchers("/error").permitAll() // Allow error page
+                        .requestMatchers(HttpMethod.GET, "/api/sync/readiness").permitAll() // Probe for load balancers
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 );
 
-        http.authenticationProvider(authenticationProvider());
+        http.authenticationProvider(authenticationProvider);
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
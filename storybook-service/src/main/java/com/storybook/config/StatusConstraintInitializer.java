@@ -0,0 +1,57 @@
+package com.storybook.config;
+
+import com.storybook.entity.StoryStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Hibernate creates a CHECK constraint listing the enum values for @Enumerated(STRING)
+ * columns, but ddl-auto=update never alters it. On databases created before ARCHIVED was
+ * added, the reconciler's UPDATE would violate it, so recreate the constraint when it is
+ * missing a current StoryStatus value.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class StatusConstraintInitializer implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        alignConstraint("stories", "status");
+        alignConstraint("stories", "audio_status");
+    }
+
+    private void alignConstraint(String table, String column) {
+        String constraint = table + "_" + column + "_check";
+        try {
+            List<String> definitions = jdbcTemplate.queryForList(
+                    "SELECT pg_get_constraintdef(oid) FROM pg_constraint WHERE conname = ? AND conrelid = ?::regclass",
+                    String.class, constraint, table);
+            // No constraint at all, or it already allows every value
+            if (definitions.isEmpty() || Arrays.stream(StoryStatus.values())
+                    .allMatch(status -> definitions.get(0).contains("'" + status.name() + "'"))) {
+                return;
+            }
+            String values = Arrays.stream(StoryStatus.values())
+                    .map(status -> "'" + status.name() + "'")
+                    .collect(Collectors.joining(", "));
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP CONSTRAINT " + constraint
+                    + ", ADD CONSTRAINT " + constraint + " CHECK (" + column + " IN (" + values + "))");
+            log.info("Recreated {} to allow {}.", constraint, values);
+        } catch (Exception e) {
+            log.warn("Could not align constraint {} on {}: {}", constraint, table, e.getMessage());
+        }
+    }
+}
@@ -1,40 +1,33 @@
 package com.storybook.config;
 
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import com.storybook.dto.CursorPage;
+import com.storybook.security.CurrentUserArgumentResolver;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.io.File;
+import java.util.List;
 
 @Configuration
-@Slf4j
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
-    @Value("${storybook.stories-path:../stories}")
-    private String storiesPath;
+    private final CurrentUserArgumentResolver currentUserArgumentResolver;
 
     @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Map /stories/** to file system
-        String absolutePath = new File(storiesPath).getAbsolutePath();
-        if (!absolutePath.endsWith(File.separator)) {
-            absolutePath += File.separator;
-        }
-        
-        log.info("Mapping /stories/** to file path: {}", absolutePath);
-        
-        registry.addResourceHandler("/stories/**")
-                .addResourceLocations("file:" + absolutePath);
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver); // @CurrentUser User / Long parameters
     }
 
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOriginPatterns("*") // Allow Vite dev server
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                .allowedMethods("GET", "HEAD", "POST", "PUT", "DELETE", "OPTIONS")
+                .exposedHeaders(CursorPage.NEXT_CURSOR_HEADER, // Readable by the web client for paging
+                        "Content-Range", "Accept-Ranges", "ETag")
                 .allowCredentials(true);
     }
 }
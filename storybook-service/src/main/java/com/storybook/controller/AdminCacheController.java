@@ -0,0 +1,26 @@
+package com.storybook.controller;
+
+import com.storybook.dto.CacheStats;
+import com.storybook.service.impl.StoryContentCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+public class AdminCacheController {
+
+    private final StoryContentCache storyContentCache;
+
+    @GetMapping("/content")
+    public CacheStats contentStats() {
+        return storyContentCache.stats();
+    }
+
+    @DeleteMapping("/content")
+    public ResponseEntity<Void> clearContent() {
+        storyContentCache.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.storybook.controller;
+
+import com.storybook.dto.BulkImportReport;
+import com.storybook.service.StoryImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/stories")
+@RequiredArgsConstructor
+public class AdminImportController {
+
+    private final StoryImportService storyImportService;
+
+    // Body: NDJSON, one {"storyId", "style", "userId", "story": <story.json>} per line.
+    // Read straight from the request stream, never buffered as a whole.
+    // stories/{storyId} must already exist: items without a folder fail, as the sync's reconcile would archive them.
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/plain"})
+    public ResponseEntity<BulkImportReport> importStories(InputStream body) {
+        return ResponseEntity.ok(storyImportService.importStories(body));
+    }
+}
@@ -0,0 +1,59 @@
+package com.storybook.controller;
+
+import com.storybook.dto.ReconcileReport;
+import com.storybook.dto.SyncJobRequest;
+import com.storybook.dto.SyncJobStatus;
+import com.storybook.service.StorySyncService;
+import com.storybook.service.SyncJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/sync")
+@RequiredArgsConstructor
+public class AdminSyncController {
+
+    private final StorySyncService storySyncService;
+    private final SyncJobService syncJobService;
+
+    // Compare story folders with published stories; dryRun=true only reports what would be swept
+    @PostMapping("/reconcile")
+    public ResponseEntity<ReconcileReport> reconcile(@RequestParam(defaultValue = "true") boolean dryRun) {
+        return ResponseEntity.ok(storySyncService.reconcile(dryRun));
+    }
+
+    // Queue a background sync; no body or empty storyIds rescans every folder
+    @PostMapping("/jobs")
+    public ResponseEntity<?> startJob(@RequestBody(required = false) SyncJobRequest request) {
+        try {
+            SyncJobStatus job = syncJobService.startJob(request != null ? request.getStoryIds() : null);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/jobs")
+    public List<SyncJobStatus> listJobs() {
+        return syncJobService.listJobs();
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<SyncJobStatus> getJob(@PathVariable String jobId) {
+        return syncJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Stops the job between stories; stories already in flight finish their transaction
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<SyncJobStatus> cancelJob(@PathVariable String jobId) {
+        return syncJobService.cancelJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -5,16 +5,26 @@ import com.storybook.dto.LoginRequest;
 import com.storybook.dto.SignupRequest;
 import com.storybook.entity.User;
 import com.storybook.repository.UserRepository;
+import com.storybook.security.CurrentUser;
 import com.storybook.security.JwtUtils;
+import com.storybook.security.PasswordHashingExecutor;
+import com.storybook.security.TokenVersionCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -25,66 +35,89 @@ public class AuthController {
     private final UserRepository userRepository;
     private final PasswordEncoder encoder;
     private final JwtUtils jwtUtils;
+    private final TokenVersionCache tokenVersionCache;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
+    // BCrypt runs on the hashing pool; the request thread is released until it completes
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@RequestBody LoginRequest loginRequest) {
         log.info("Login attempt for user: {}", loginRequest.getUsername()); // Log entry
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateToken(loginRequest.getUsername());
+        return passwordHashingExecutor.submit(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
 
-        org.springframework.security.core.userdetails.User userDetails = (org.springframework.security.core.userdetails.User) authentication
-                .getPrincipal();
-        User user = userRepository.findByUsername(userDetails.getUsername()).orElseThrow();
+            org.springframework.security.core.userdetails.User userDetails = (org.springframework.security.core.userdetails.User) authentication
+                    .getPrincipal();
+            User user = userRepository.findByUsername(userDetails.getUsername()).orElseThrow();
+            String jwt = jwtUtils.generateToken(user, roles(authentication));
 
-        return ResponseEntity.ok(new JwtResponse(jwt, user.getId(), user.getUsername()));
+            return ResponseEntity.ok(new JwtResponse(jwt, user.getId(), user.getUsername()));
+        });
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@RequestBody SignupRequest signUpRequest) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@RequestBody SignupRequest signUpRequest) {
         if (userRepository.existsByUsername(signUpRequest.getUsername())) {
-            return ResponseEntity.badRequest().body("Error: Username is already taken!");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Error: Username is already taken!"));
         }
 
         String lowerUsername = signUpRequest.getUsername().toLowerCase();
         if (lowerUsername.contains("admin") || lowerUsername.contains("root")) {
-            return ResponseEntity.badRequest()
-                    .body("Error: Username cannot contain restricted keywords (admin, root).");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body("Error: Username cannot contain restricted keywords (admin, root)."));
         }
 
         if (!isValidPassword(signUpRequest.getPassword())) {
-            return ResponseEntity.badRequest().body(
-                    "Error: Password must be at least 8 chars and include 2 of: uppercase, lowercase, digit, special char.");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(
+                    "Error: Password must be at least 8 chars and include 2 of: uppercase, lowercase, digit, special char."));
         }
 
-        // Create new user's account
-        User user = new User(signUpRequest.getUsername(),
-                encoder.encode(signUpRequest.getPassword()));
+        return passwordHashingExecutor.submit(() -> {
+            // Create new user's account
+            User user = new User(signUpRequest.getUsername(),
+                    encoder.encode(signUpRequest.getPassword()));
 
-        userRepository.save(user);
+            userRepository.save(user);
 
-        return ResponseEntity.ok("User registered successfully!");
+            return ResponseEntity.ok("User registered successfully!");
+        });
     }
 
     @PostMapping("/change-password")
-    public ResponseEntity<?> changePassword(@RequestBody com.storybook.dto.ChangePasswordRequest request) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username).orElseThrow();
-
-        if (!encoder.matches(request.getOldPassword(), user.getPassword())) {
-            return ResponseEntity.badRequest().body("Error: Invalid old password.");
-        }
-
+    public CompletableFuture<ResponseEntity<?>> changePassword(@CurrentUser Long userId, @RequestBody com.storybook.dto.ChangePasswordRequest request) {
         if (!isValidPassword(request.getNewPassword())) {
-            return ResponseEntity.badRequest().body("Error: Password too weak.");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Error: Password too weak."));
         }
+        // Read on the request thread, the security context is not visible on the hashing pool
+        List<String> roles = roles(SecurityContextHolder.getContext().getAuthentication());
+
+        return passwordHashingExecutor.submit(() -> {
+            User user = userRepository.findById(userId).orElseThrow(); // Fresh row: this is a write
+            if (!encoder.matches(request.getOldPassword(), user.getPassword())) {
+                return ResponseEntity.badRequest().body("Error: Invalid old password.");
+            }
+
+            user.setPassword(encoder.encode(request.getNewPassword()));
+            user.setTokenVersion(user.getTokenVersion() + 1); // Signs out every other session
+            userRepository.save(user);
+            tokenVersionCache.update(user.getId(), user.getTokenVersion());
+
+            // The caller's own token is revoked too, hand it a new one
+            String jwt = jwtUtils.generateToken(user, roles);
+            return ResponseEntity.ok(new JwtResponse(jwt, user.getId(), user.getUsername()));
+        });
+    }
 
-        user.setPassword(encoder.encode(request.getNewPassword()));
-        userRepository.save(user);
+    // Hashing pool and queue are full: shed the request instead of queueing it on a Tomcat thread
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<?> hashingBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Error: Too many sign-in requests, please retry shortly.");
+    }
 
-        return ResponseEntity.ok("Password changed successfully!");
+    private static List<String> roles(Authentication authentication) {
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
     }
 
     private boolean isValidPassword(String password) {
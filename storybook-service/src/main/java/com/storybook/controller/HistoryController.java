@@ -1,18 +1,23 @@
 package com.storybook.controller;
 
+import com.storybook.dto.CursorPage;
+import com.storybook.dto.PageCursor;
 import com.storybook.dto.ReadingProgressDto;
+import com.storybook.dto.StorySummaryDto;
+import com.storybook.dto.StyleSummaryDto;
 import com.storybook.entity.ReadingProgress;
-import com.storybook.entity.Story;
 import com.storybook.entity.User;
 import com.storybook.repository.ReadingProgressRepository;
 import com.storybook.repository.StoryRepository;
-import com.storybook.repository.UserRepository;
+import com.storybook.repository.StoryStyleRepository;
+import com.storybook.security.CurrentUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -21,24 +26,47 @@ import java.util.stream.Collectors;
 public class HistoryController {
 
     private final ReadingProgressRepository progressRepository;
-    private final UserRepository userRepository;
     private final StoryRepository storyRepository;
+    private final StoryStyleRepository storyStyleRepository;
 
+    // Keyset paginated on (updatedAt, id): pass X-Next-Cursor back as ?cursor= for the next page
     @GetMapping
-    public List<ReadingProgressDto> getHistory() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username).orElseThrow();
+    public ResponseEntity<List<ReadingProgressDto>> getHistory(@CurrentUser User user,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer limit) {
+        PageCursor after;
+        long afterId;
+        try {
+            after = PageCursor.decode(cursor);
+            afterId = after.longId();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = PageCursor.clampLimit(limit);
+        List<ReadingProgress> rows = progressRepository.findPageByUser(user, after.at(), afterId, Limit.of(pageSize + 1));
+        CursorPage<ReadingProgress> page = CursorPage.of(rows, pageSize,
+                progress -> new PageCursor(progress.getUpdatedAt(), String.valueOf(progress.getId())));
 
-        return progressRepository.findByUserOrderByUpdatedAtDesc(user).stream()
-                .map(this::convertToDto)
+        // Titles and covers for the whole page in two queries instead of lookups per row
+        List<String> storyIds = page.getItems().stream().map(ReadingProgress::getStoryId).distinct().toList();
+        Map<String, String> titles = storyRepository.findSummariesByIdIn(storyIds).stream()
+                .filter(story -> story.getTitleZh() != null)
+                .collect(Collectors.toMap(StorySummaryDto::getId, StorySummaryDto::getTitleZh));
+        Map<String, List<StyleSummaryDto>> styles = storyStyleRepository.findSummariesByStoryIdIn(storyIds).stream()
+                .collect(Collectors.groupingBy(StyleSummaryDto::getStoryId));
+        List<ReadingProgressDto> items = page.getItems().stream()
+                .map(progress -> convertToDto(progress, titles.get(progress.getStoryId()),
+                        coverImage(styles.getOrDefault(progress.getStoryId(), List.of()), progress.getStyleName())))
                 .collect(Collectors.toList());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(items);
     }
 
     @PostMapping
-    public ResponseEntity<?> saveProgress(@RequestBody ReadingProgressDto dto) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username).orElseThrow();
-
+    public ResponseEntity<?> saveProgress(@CurrentUser User user, @RequestBody ReadingProgressDto dto) {
         ReadingProgress progress = progressRepository.findByUserAndStoryId(user, dto.getStoryId())
                 .orElse(new ReadingProgress(user, dto.getStoryId(), dto.getStyleName(), dto.getCurrentPage()));
 
@@ -51,18 +79,22 @@ public class HistoryController {
         return ResponseEntity.ok().build();
     }
 
-    private ReadingProgressDto convertToDto(ReadingProgress entity) {
+    private static String coverImage(List<StyleSummaryDto> styles, String styleName) {
+        return styles.stream().filter(style -> style.getName().equals(styleName)).findFirst()
+                .or(() -> styles.stream().findFirst())
+                .map(StyleSummaryDto::getCoverImage)
+                .orElse(null);
+    }
+
+    private ReadingProgressDto convertToDto(ReadingProgress entity, String storyTitle, String coverImage) {
         ReadingProgressDto dto = new ReadingProgressDto();
         dto.setStoryId(entity.getStoryId());
         dto.setStyleName(entity.getStyleName());
         dto.setCurrentPage(entity.getCurrentPage());
         dto.setDurationSeconds(entity.getDurationSeconds());
         dto.setUpdatedAt(entity.getUpdatedAt());
-        
-        // Fetch title
-        storyRepository.findById(entity.getStoryId())
-                .ifPresent(story -> dto.setStoryTitle(story.getTitleZh()));
-        
+        dto.setStoryTitle(storyTitle);
+        dto.setCoverImage(coverImage);
         return dto;
     }
 }
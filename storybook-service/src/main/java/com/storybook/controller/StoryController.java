@@ -1,25 +1,39 @@
 package com.storybook.controller;
 
+import com.storybook.dto.CachedResponse;
+import com.storybook.dto.CatalogVersionDto;
+import com.storybook.dto.CursorPage;
 import com.storybook.dto.StoryJsonDto;
+import com.storybook.dto.StorySummaryDto;
 import com.storybook.entity.Story;
 import com.storybook.entity.StoryStatus;
+import com.storybook.service.StoryBundle;
+import com.storybook.service.StoryBundleService;
 import com.storybook.service.StoryService;
+import com.storybook.service.impl.CatalogVersion;
+import com.storybook.service.impl.GuestQuotaTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j; // Correct Import
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.nio.channels.Channels;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import com.storybook.entity.GuestReadingLog;
-import com.storybook.repository.GuestReadingLogRepository;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.http.HttpStatus;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
 import com.storybook.dto.GenerateStoryRequest;
 import com.storybook.dto.GenerateStoryResponse;
 import com.storybook.dto.StoryCallbackRequest;
@@ -31,74 +45,218 @@ import com.storybook.dto.StoryCallbackRequest;
 public class StoryController {
 
     private final StoryService storyService;
-    private final GuestReadingLogRepository guestRepo;
+    private final StoryBundleService storyBundleService;
+    private final GuestQuotaTracker guestQuotaTracker;
+    private final CatalogVersion catalogVersion;
 
+    // Keyset paginated: pass the X-Next-Cursor response header back as ?cursor= for the next page.
+    // Returns summaries only, the full story with pages comes from /{id} and /{id}/content.
     @GetMapping
-    public List<Story> getStories(@RequestParam(required = false) String keyword,
-                                @RequestParam(required = false) String status) {
+    public ResponseEntity<List<StorySummaryDto>> getStories(@RequestParam(required = false) String keyword,
+                                @RequestParam(required = false) String status,
+                                @RequestParam(required = false) String cursor,
+                                @RequestParam(required = false) Integer limit,
+                                WebRequest webRequest) {
+        // The public feed only changes with the catalog version: answer 304 without querying
+        boolean publicFeed = status == null || status.isEmpty();
+        String feedEtag = "\"feed-" + catalogVersion.current() + "\"";
+        if (publicFeed && webRequest.checkNotModified(feedEtag, catalogVersion.lastModified())) {
+            return null;
+        }
+
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         boolean isLoggedIn = auth != null && auth.isAuthenticated() && !auth.getPrincipal().equals("anonymousUser");
         String userId = isLoggedIn ? auth.getName() : null;
 
-        log.info("getStories called by user: {}, status: {}, keyword: {}", userId, status, keyword);
+        log.info("getStories called by user: {}, status: {}, keyword: {}, cursor: {}", userId, status, keyword, cursor);
 
-        List<Story> stories;
+        StoryStatus storyStatus = null;
         if (status != null && !status.isEmpty()) {
             try {
-                StoryStatus storyStatus = StoryStatus.valueOf(status.toUpperCase());
-                stories = storyService.getStoriesByStatus(userId, storyStatus, keyword);
+                storyStatus = StoryStatus.valueOf(status.toUpperCase());
             } catch (IllegalArgumentException e) {
-                return List.of();
+                return ResponseEntity.ok(List.of());
             }
-        } else {
-            stories = storyService.getAllStories(userId, keyword);
         }
-        
+
+        CursorPage<StorySummaryDto> page;
+        try {
+            page = storyStatus != null
+                    ? storyService.getStoriesByStatus(userId, storyStatus, keyword, cursor, limit)
+                    : storyService.getAllStories(userId, keyword, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // Malformed cursor
+        }
+
         // Debug Log
+        List<StorySummaryDto> stories = page.getItems();
         if (!stories.isEmpty()) {
             log.info("Returning {} stories. First story ID: {}, UserID: {}, Status: {}", 
                 stories.size(), stories.get(0).getId(), stories.get(0).getUserId(), stories.get(0).getStatus());
         }
 
-        return stories;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        if (publicFeed) {
+            // ETag and Last-Modified were set by checkNotModified; caches must revalidate
+            response.cacheControl(CacheControl.noCache());
+        }
+        return response.body(stories);
+    }
+
+    // Cheap poll for clients: has the public catalog changed since the version they last saw?
+    @GetMapping("/catalog-version")
+    public CatalogVersionDto getCatalogVersion(@RequestParam(required = false) Long since) {
+        return new CatalogVersionDto(catalogVersion.current(), catalogVersion.lastModified(),
+                since == null || catalogVersion.changedSince(since));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Story> getStoryMetadata(@PathVariable String id) {
-        return storyService.getStoryById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<byte[]> getStoryMetadata(@PathVariable String id,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return storyService.getStoryMetadataResponse(id)
+                .map(response -> toResponse(response, ifNoneMatch, acceptEncoding))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/{id}/content")
-    public ResponseEntity<?> getStoryContent(@PathVariable String id, @RequestHeader(value = "X-Guest-Id", required = false) String guestId) {
+    public ResponseEntity<?> getStoryContent(@PathVariable String id, @RequestHeader(value = "X-Guest-Id", required = false) String guestId,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ResponseEntity<String> denied = checkGuestQuota(guestId, id);
+        if (denied != null) {
+            return denied;
+        }
+
+        return storyService.getStoryDetailResponse(id)
+                .map(response -> toResponse(response, ifNoneMatch, acceptEncoding))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Whole story in one tar (content.json, page images, audio) for offline reading. Supports
+    // Range for resuming; ?v=<ETag value> marks the URL as immutable. Counts as reading the story.
+    @GetMapping("/{id}/bundle")
+    public ResponseEntity<?> getStoryBundle(@PathVariable String id,
+                                            @RequestParam(required = false) Integer width,
+                                            @RequestParam(required = false) String lang,
+                                            @RequestParam(required = false) String v,
+                                            @RequestHeader(value = "X-Guest-Id", required = false) String guestId,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                                            HttpMethod method, HttpServletResponse response) throws IOException {
+        StoryBundle bundle;
+        try {
+            bundle = storyBundleService.getBundle(id, width, lang).orElse(null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        if (bundle == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = bundle.etag();
+        CacheControl cacheControl = etag.equals("\"" + v + "\"")
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.noCache();
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        ResponseEntity<String> denied = method == HttpMethod.HEAD ? null : checkGuestQuota(guestId, id);
+        if (denied != null) {
+            return denied;
+        }
+
+        long start = 0;
+        long count = bundle.length();
+        // Resume only against the same bundle; a stale If-Range gets the whole new one
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(bundle.length());
+                    count = ranges.get(0).getRangeEnd(bundle.length()) - start + 1;
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE,
+                            "bytes " + start + "-" + (start + count - 1) + "/" + bundle.length());
+                }
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + bundle.length())
+                        .build();
+            }
+        }
+
+        response.setContentType("application/x-tar");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"story-bundle.tar\"");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentLengthLong(count);
+        if (method != HttpMethod.HEAD) {
+            bundle.writeTo(Channels.newChannel(response.getOutputStream()), start, count);
+        }
+        return null; // Response already written
+    }
+
+    // Guests may open a few different stories a day (decided in memory); null when the request may proceed
+    private ResponseEntity<String> checkGuestQuota(String guestId, String storyId) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         boolean isLoggedIn = auth != null && auth.isAuthenticated() && !auth.getPrincipal().equals("anonymousUser");
+        if (isLoggedIn) {
+            return null;
+        }
+        if (guestId == null || guestId.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Missing Guest ID");
+        }
+        if (!guestQuotaTracker.tryRead(guestId, storyId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Daily limit reached (" + guestQuotaTracker.dailyStories() + " stories). Please login.");
+        }
+        return null;
+    }
+
+    // Writes pre-serialized bytes; 304 when the client already has this version
+    private ResponseEntity<byte[]> toResponse(CachedResponse response, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = response.getGzipBody() != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+        // Each encoding is a different representation, so it gets its own strong ETag
+        String etag = gzip ? response.getEtag().replaceFirst("\"$", "-gz\"") : response.getEtag();
+
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache()) // Revalidate each time, the story may be re-synced
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.getGzipBody());
+        }
+        return builder.body(response.getBody());
+    }
 
-        if (!isLoggedIn) {
-            if (guestId == null || guestId.isBlank()) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Missing Guest ID");
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses weak comparison
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
             }
-            
-            LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-            
-            // Check if already read this story today
-            boolean hasReadToday = guestRepo.existsByGuestIdAndStoryIdAndReadAtAfter(guestId, id, startOfDay);
-            
-            if (!hasReadToday) {
-                // Check quota
-                long count = guestRepo.countDistinctStoriesByGuestIdToday(guestId, startOfDay);
-                if (count >= 2) {
-                    return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Daily limit reached (2 stories). Please login.");
-                }
-                // Record new reading
-                guestRepo.save(new GuestReadingLog(guestId, id));
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
             }
         }
-
-        return storyService.getStoryDetail(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return false;
     }
 
     @PostMapping("/generate")
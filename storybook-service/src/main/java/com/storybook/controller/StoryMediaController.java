@@ -0,0 +1,184 @@
+package com.storybook.controller;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serves story images and audio from the stories folder. Supports single byte ranges
+ * (audio seeking), conditional requests, precompressed {@code .gz} siblings and hands the
+ * file to Tomcat's sendfile when the connector supports it. URLs carrying a {@code ?v=}
+ * version token (written by the sync) are cached by clients as immutable.
+ */
+@RestController
+@Slf4j
+public class StoryMediaController {
+
+    private static final String PREFIX = "/stories/";
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    // Tomcat request attributes for zero-copy transfers
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final Set<String> COMPRESSIBLE = Set.of("application/json", "text/plain", "image/svg+xml");
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+    private Path root;
+
+    @Value("${storybook.stories-path:../stories}")
+    private String storiesPath;
+
+    // Cache lifetime of URLs without a version token
+    @Value("${storybook.media.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    @PostConstruct
+    public void init() {
+        root = Paths.get(storiesPath).toAbsolutePath().normalize();
+        log.info("Serving /stories/** from file path: {}", root);
+    }
+
+    @RequestMapping(value = "/stories/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = resolve(urlPathHelper.getPathWithinApplication(request));
+        if (file == null || !Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        MediaType mediaType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+        // Precompressed sibling, e.g. content.json.gz next to content.json
+        boolean gzip = false;
+        if (COMPRESSIBLE.contains(mediaType.getType() + "/" + mediaType.getSubtype()) && acceptsGzip(request)) {
+            Path gz = file.resolveSibling(file.getFileName() + ".gz");
+            if (Files.isRegularFile(gz)) {
+                file = gz;
+                gzip = true;
+            }
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + (gzip ? "-gz" : "") + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                request.getParameter("v") != null ? IMMUTABLE : "public, max-age=" + maxAgeSeconds);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return; // 304 or 412, headers already set
+        }
+
+        response.setContentType(mediaType.toString());
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        } else {
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (!gzip && rangeHeader != null && length > 0 && ifRangeMatches(request, etag, lastModified)) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if (ranges.size() == 1) { // Multipart ranges are answered with the whole file
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file itself after the request returns
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    // Maps the request path into the stories folder; null when it escapes it
+    private Path resolve(String requestPath) {
+        if (!requestPath.startsWith(PREFIX)) {
+            return null;
+        }
+        try {
+            Path file = root.resolve(requestPath.substring(PREFIX.length())).normalize();
+            return file.startsWith(root) && !file.equals(root) ? file : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accept != null && accept.toLowerCase().contains("gzip");
+    }
+
+    // A Range with a stale If-Range validator gets the full, current file
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.storybook.controller;
+
+import com.storybook.service.SyncJobService;
+import com.storybook.service.SyncJobService.SyncReadiness;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncStatusController {
+
+    private final SyncJobService syncJobService;
+
+    // 200 once the startup sync is done, 503 while it is pending, running or failed
+    @GetMapping("/readiness")
+    public ResponseEntity<Map<String, String>> readiness() {
+        SyncReadiness readiness = syncJobService.getReadiness();
+        HttpStatus status = readiness == SyncReadiness.READY ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(Map.of("status", readiness.name()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.storybook.dto;
+
+import com.storybook.entity.AudioTrackPage;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AudioTrackDto {
+    private String lang;
+    private String userId; // Set for the owner's custom dubbing track
+    private String url; // One MP3 for the whole story, seek with the page offsets
+    private Long durationMs;
+    private List<AudioTrackPage> pages;
+}
@@ -0,0 +1,26 @@
+package com.storybook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkImportReport {
+    private int total;
+    private int created;
+    private int updated;
+    private int failed;
+    private long elapsedMs;
+    private List<ItemResult> results = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int line; // 1-based line in the NDJSON stream
+        private String storyId;
+        private String status; // CREATED, UPDATED or FAILED
+        private String error;
+    }
+}
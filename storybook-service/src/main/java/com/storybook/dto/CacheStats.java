@@ -0,0 +1,16 @@
+package com.storybook.dto;
+
+import lombok.Data;
+
+@Data
+public class CacheStats {
+    private int entries;
+    private int maxEntries;
+    private long weightBytes; // Approximate retained size
+    private long maxWeightBytes;
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long evictions; // Dropped to stay within the limits
+    private long invalidations; // Dropped because the story changed
+}
@@ -0,0 +1,15 @@
+package com.storybook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A JSON response body serialized once and reused until the story changes.
+ */
+@Data
+@AllArgsConstructor
+public class CachedResponse {
+    private byte[] body;
+    private byte[] gzipBody; // Null when the body is too small to be worth compressing
+    private String etag; // Strong ETag, quoted
+}
@@ -0,0 +1,12 @@
+package com.storybook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CatalogVersionDto {
+    private long version;
+    private long lastModified; // Epoch millis
+    private boolean changed; // True when the catalog changed after the requested version
+}
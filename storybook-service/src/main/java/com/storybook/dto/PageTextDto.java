@@ -0,0 +1,14 @@
+package com.storybook.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageTextDto {
+    private String storyId;
+    private String textZh;
+    private String textEn;
+}
@@ -8,6 +8,7 @@ public class ReadingProgressDto {
     private String storyId;
     private String storyTitle; // Returned for display
     private String styleName;
+    private String coverImage; // Cover of styleName (or the first style), returned for display
     private int currentPage;
     private long durationSeconds;
     private LocalDateTime updatedAt;
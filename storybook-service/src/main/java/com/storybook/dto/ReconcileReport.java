@@ -0,0 +1,18 @@
+package com.storybook.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ReconcileReport {
+    private boolean dryRun;
+    private String mode; // REPORT, UNPUBLISH or DELETE
+    private int foldersOnDisk;
+    private int publishedInDb;
+    private int missingOnDisk; // Published stories whose folder is gone
+    private int affected; // Rows unpublished or deleted, 0 for a dry run
+    private String abortedReason; // Set when the sweep refused to run
+    private List<String> sampleStoryIds = new ArrayList<>(); // First missing ids, for review
+}
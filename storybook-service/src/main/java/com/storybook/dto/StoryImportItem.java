@@ -0,0 +1,16 @@
+package com.storybook.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/**
+ * One line of a bulk import NDJSON stream.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class StoryImportItem {
+    private String storyId;
+    private String style; // Style folder name, becomes selectedStyleId
+    private String userId; // Optional owner, null for catalog stories
+    private StoryJsonDto story; // Same shape as story.json
+}
@@ -13,6 +13,7 @@ public class StoryJsonDto {
     private String styleEn;
     private String fullStory;
     private List<PageDto> pages;
+    private List<AudioTrackDto> audioTracks; // Joined per-language tracks, only set on synced stories
 
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -20,6 +21,7 @@ public class StoryJsonDto {
         private int pageNumber;
         private String textZh;
         private String textEn;
+        private String imageSrcset; // Downscaled page images, only set on synced stories
         private String audioUrlZh;
         private String audioUrlEn;
     }
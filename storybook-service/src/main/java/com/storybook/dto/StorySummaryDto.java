@@ -0,0 +1,37 @@
+package com.storybook.dto;
+
+import com.storybook.entity.StoryStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List view of a story, read with a JPQL constructor expression instead of loading the
+ * entity graph. Same field names as {@code Story} so the web client can use either.
+ */
+@Data
+@NoArgsConstructor
+public class StorySummaryDto {
+    private String id;
+    private String titleZh;
+    private String titleEn;
+    private String userId;
+    private StoryStatus status;
+    private String coverImage; // Cover of the first style, null while generating
+    private LocalDateTime createdAt;
+    private List<StyleSummaryDto> styles = new ArrayList<>();
+
+    public StorySummaryDto(String id, String titleZh, String titleEn, String userId, StoryStatus status,
+                           LocalDateTime createdAt) {
+        this.id = id;
+        this.titleZh = titleZh;
+        this.titleEn = titleEn;
+        this.userId = userId;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+
+}
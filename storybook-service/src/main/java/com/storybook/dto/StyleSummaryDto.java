@@ -0,0 +1,17 @@
+package com.storybook.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StyleSummaryDto {
+    @JsonIgnore
+    private String storyId; // Only used to group styles onto their story
+    private String name; // e.g., "迪士尼" (Zh)
+    private String nameEn;
+    private String coverImage; // Cover thumbnail once derived, else the full-size page 1
+}
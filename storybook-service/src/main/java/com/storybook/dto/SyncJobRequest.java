@@ -0,0 +1,11 @@
+package com.storybook.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class SyncJobRequest {
+    private List<String> storyIds = new ArrayList<>(); // Story folder names, empty for a full sync
+}
@@ -0,0 +1,25 @@
+package com.storybook.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class SyncJobStatus {
+    private String jobId;
+    private String type; // FULL, PARTIAL or CRAWL
+    private String state; // QUEUED, RUNNING, COMPLETED, CANCELLED or FAILED
+    private int total;
+    private int processed;
+    private int synced;
+    private int skipped;
+    private int failed;
+    private int cancelled; // Folders not synced because the job was cancelled
+    private double storiesPerSecond;
+    private Long etaSeconds; // Null until the first story is done or when the job is no longer running
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+    private ReconcileReport reconcile; // Sweep result, only for a completed full sync
+}
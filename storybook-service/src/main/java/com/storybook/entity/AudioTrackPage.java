@@ -0,0 +1,19 @@
+package com.storybook.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Where one page's audio sits inside a joined story track.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AudioTrackPage {
+    private int pageNumber;
+    private long byteOffset; // First byte of the page's frames in the track
+    private long byteLength;
+    private long startMs; // Playback position where the page starts
+    private long durationMs;
+}
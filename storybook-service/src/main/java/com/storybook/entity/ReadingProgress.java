@@ -8,7 +8,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reading_progress")
+@Table(name = "reading_progress", indexes = {
+        @Index(name = "idx_reading_progress_user_updated", columnList = "user_id, updated_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 public class ReadingProgress {
@@ -12,7 +12,11 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "stories")
+@Table(name = "stories", indexes = {
+        // Keyset pagination of the feed and "my stories"
+        @Index(name = "idx_stories_status_created", columnList = "status, created_at DESC, id DESC"),
+        @Index(name = "idx_stories_user_status_created", columnList = "user_id, status, created_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 public class Story {
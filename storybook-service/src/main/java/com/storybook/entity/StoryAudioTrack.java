@@ -0,0 +1,48 @@
+package com.storybook.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One continuous MP3 joined from a story's per-page audio, with the offset of every page.
+ * Built by the sync for each narration language and for the owner's custom dubbing.
+ */
+@Entity
+@Table(name = "story_audio_tracks",
+        uniqueConstraints = @UniqueConstraint(name = "uk_story_audio_tracks_key", columnNames = {"story_id", "track_key"}))
+@Data
+@NoArgsConstructor
+public class StoryAudioTrack {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "story_id", nullable = false)
+    private String storyId;
+
+    @Column(name = "track_key", nullable = false)
+    private String trackKey; // "zh", "en" or "custom-{userId}"
+
+    private String lang;
+
+    private String userId; // Set for custom dubbing tracks
+
+    private String url; // e.g. "/stories/{id}/.derived/track-zh.mp3?v=..."
+
+    private Long byteLength;
+
+    private Long durationMs;
+
+    @Column(length = 64)
+    private String sourceDigest; // SHA-256 over name/size/mtime of the page files it was joined from
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private List<AudioTrackPage> pages = new ArrayList<>();
+}
@@ -4,15 +4,18 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "story_pages")
+@Table(name = "story_pages", indexes = @Index(name = "idx_story_pages_story", columnList = "story_id"))
 @Data
 @NoArgsConstructor
+@DynamicUpdate
 public class StoryPage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "story_page_seq")
+    @SequenceGenerator(name = "story_page_seq", sequenceName = "story_pages_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -30,6 +33,9 @@ public class StoryPage {
 
     private String imageUrl; // Path to the image for this page
 
+    @Column(length = 1000)
+    private String imageSrcset; // Downscaled copies, e.g. "/stories/.../.derived/page-1-w480.jpg 480w, ..."
+
     private String audioUrlZh; // Audio URL for Chinese text
 
     private String audioUrlEn; // Audio URL for English text
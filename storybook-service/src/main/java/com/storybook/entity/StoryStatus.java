@@ -4,5 +4,6 @@ public enum StoryStatus {
     DRAFT,          // 草稿 (预留，MVP3暂不实现)
     GENERATING,     // 正在生成中
     PUBLISHED,      // 已发布，可阅读
-    FAILED          // 生成失败
+    FAILED,         // 生成失败
+    ARCHIVED        // 已下架，源文件已从磁盘删除
 }
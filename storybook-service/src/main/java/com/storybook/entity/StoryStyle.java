@@ -5,15 +5,18 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "story_styles")
+@Table(name = "story_styles", indexes = @Index(name = "idx_story_styles_story", columnList = "story_id"))
 @Data
 @NoArgsConstructor
+@DynamicUpdate
 public class StoryStyle {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "story_style_seq")
+    @SequenceGenerator(name = "story_style_seq", sequenceName = "story_styles_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -29,6 +32,8 @@ public class StoryStyle {
 
     private String coverImage; // Relative path, e.g., "/stories/灰姑娘/迪士尼/page-1.png"
 
+    private String coverThumbnail; // Small JPEG of the cover for list views, null until derived
+
     public StoryStyle(Story story, String name, String nameEn, String coverImage) {
         this.story = story;
         this.name = name;
@@ -0,0 +1,42 @@
+package com.storybook.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fingerprint of the files a story was last synced from. Lets the sync skip
+ * stories whose story.json, style images and audio have not changed on disk.
+ */
+@Entity
+@Table(name = "story_sync_states")
+@Data
+@NoArgsConstructor
+public class StorySyncState {
+
+    @Id
+    @Column(nullable = false)
+    private String storyId; // Same id as Story.id
+
+    private String styleId; // Style folder the pages were synced from
+
+    private Long jsonSize; // story.json size in bytes
+
+    private Long jsonModifiedAt; // story.json mtime, epoch millis
+
+    @Column(length = 64)
+    private String jsonHash; // SHA-256 of story.json
+
+    @Column(length = 64)
+    private String assetDigest; // SHA-256 over name/size/mtime of style and audio files
+
+    @UpdateTimestamp
+    private LocalDateTime syncedAt;
+
+    public StorySyncState(String storyId) {
+        this.storyId = storyId;
+    }
+}
@@ -1,14 +1,17 @@
 package com.storybook.entity;
 
+import com.storybook.security.UserChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class) // Keeps the current-user cache fresh
 @Data
 @NoArgsConstructor
 public class User {
@@ -23,6 +26,9 @@ public class User {
     @Column(nullable = false)
     private String password; // BCrypt hash
 
+    @ColumnDefault("0")
+    private int tokenVersion; // Bumped on password change, revokes every token issued before
+
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime createdAt;
@@ -2,11 +2,20 @@ package com.storybook.repository;
 
 import com.storybook.entity.ReadingProgress;
 import com.storybook.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface ReadingProgressRepository extends JpaRepository<ReadingProgress, Long> {
     Optional<ReadingProgress> findByUserAndStoryId(User user, String storyId);
-    List<ReadingProgress> findByUserOrderByUpdatedAtDesc(User user);
+
+    // Keyset page ordered by (updatedAt, id) desc, starting after the given row
+    @Query("SELECT p FROM ReadingProgress p WHERE p.user = :user"
+            + " AND (p.updatedAt < :updatedAt OR (p.updatedAt = :updatedAt AND p.id < :id))"
+            + " ORDER BY p.updatedAt DESC, p.id DESC")
+    List<ReadingProgress> findPageByUser(User user, LocalDateTime updatedAt, Long id, Limit limit);
 }
@@ -0,0 +1,21 @@
+package com.storybook.repository;
+
+import com.storybook.entity.StoryAudioTrack;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface StoryAudioTrackRepository extends JpaRepository<StoryAudioTrack, Long> {
+
+    List<StoryAudioTrack> findByStoryIdOrderByTrackKey(String storyId);
+
+    Optional<StoryAudioTrack> findByStoryIdAndTrackKey(String storyId, String trackKey);
+
+    @Modifying
+    @Query("DELETE FROM StoryAudioTrack t WHERE t.storyId IN :storyIds")
+    int deleteByStoryIdIn(Collection<String> storyIds);
+}
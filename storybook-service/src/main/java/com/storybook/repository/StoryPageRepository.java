@@ -1,11 +1,29 @@
 package com.storybook.repository;
 
+import com.storybook.dto.PageTextDto;
 import com.storybook.entity.StoryPage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface StoryPageRepository extends JpaRepository<StoryPage, Long> {
     List<StoryPage> findByStoryIdOrderByPageNumberAsc(String storyId);
     void deleteByStoryId(String storyId); // For orphan removal
+
+    // Page text of many stories without loading the entities, for the search index
+    @Query("SELECT new com.storybook.dto.PageTextDto(p.story.id, p.textZh, p.textEn)"
+            + " FROM StoryPage p WHERE p.story.id IN :storyIds")
+    List<PageTextDto> findTextByStoryIdIn(Collection<String> storyIds);
+
+    // Page numbers only, e.g. to list a story's files for a bundle
+    @Query("SELECT p.pageNumber FROM StoryPage p WHERE p.story.id = :storyId ORDER BY p.pageNumber")
+    List<Integer> findPageNumbersByStoryId(String storyId);
+
+    // Single bulk DELETE for a batch of stories, no per-entity removal
+    @Modifying
+    @Query("DELETE FROM StoryPage p WHERE p.story.id IN :storyIds")
+    int deleteByStoryIdIn(Collection<String> storyIds);
 }
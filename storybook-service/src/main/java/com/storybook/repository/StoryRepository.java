@@ -1,33 +1,83 @@
 package com.storybook.repository;
 
+import com.storybook.dto.StorySummaryDto;
 import com.storybook.entity.Story;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import com.storybook.entity.StoryStatus;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List; // Added missing import
 
 public interface StoryRepository extends JpaRepository<Story, String> {
-        // Find stories by status ordered by createdAt desc
-        List<Story> findByStatusOrderByCreatedAtDesc(StoryStatus status);
+        // Summaries by id, e.g. titles for a page of reading history
+        @Query("SELECT new com.storybook.dto.StorySummaryDto(s.id, s.titleZh, s.titleEn, s.userId, s.status, s.createdAt)"
+                        + " FROM Story s WHERE s.id IN :ids")
+        List<StorySummaryDto> findSummariesByIdIn(Collection<String> ids);
 
-        // Combined search by user, status, and title (case insensitive) ordered by
-        // createdAt desc
-        List<Story> findByUserIdAndStatusAndTitleZhContainingIgnoreCaseOrUserIdAndStatusAndTitleEnContainingIgnoreCaseOrderByCreatedAtDesc(
-                        String userId1, StoryStatus status1, String zhKeyword,
-                        String userId2, StoryStatus status2, String enKeyword);
+        // All summaries in id order, batch by batch, for building the search index
+        @Query("SELECT new com.storybook.dto.StorySummaryDto(s.id, s.titleZh, s.titleEn, s.userId, s.status, s.createdAt)"
+                        + " FROM Story s WHERE s.id > :afterId ORDER BY s.id")
+        List<StorySummaryDto> findSummaryBatchAfterId(String afterId, Limit limit);
 
-        // Basic search by title (case insensitive) and status PUBLISHED ordered by
-        // createdAt desc
-        List<Story> findByStatusAndTitleZhContainingIgnoreCaseOrStatusAndTitleEnContainingIgnoreCaseOrderByCreatedAtDesc(
-                        StoryStatus status1, String zh, StoryStatus status2, String en);
+        // Keyset pages of summaries ordered by (createdAt, id) desc, starting after the given row.
+        // The first page passes PageCursor.FIRST; callers fetch limit + 1 rows to detect a next page.
+        @Query("SELECT new com.storybook.dto.StorySummaryDto(s.id, s.titleZh, s.titleEn, s.userId, s.status, s.createdAt)"
+                        + " FROM Story s WHERE s.status = :status"
+                        + " AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id))"
+                        + " ORDER BY s.createdAt DESC, s.id DESC")
+        List<StorySummaryDto> findSummaryPageByStatus(StoryStatus status, LocalDateTime createdAt, String id,
+                        Limit limit);
+
+        // Same with a lowercase LIKE pattern on either title
+        @Query("SELECT new com.storybook.dto.StorySummaryDto(s.id, s.titleZh, s.titleEn, s.userId, s.status, s.createdAt)"
+                        + " FROM Story s WHERE s.status = :status"
+                        + " AND (LOWER(s.titleZh) LIKE :pattern ESCAPE '\\' OR LOWER(s.titleEn) LIKE :pattern ESCAPE '\\')"
+                        + " AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id))"
+                        + " ORDER BY s.createdAt DESC, s.id DESC")
+        List<StorySummaryDto> searchSummaryPageByStatus(StoryStatus status, String pattern, LocalDateTime createdAt,
+                        String id, Limit limit);
+
+        @Query("SELECT new com.storybook.dto.StorySummaryDto(s.id, s.titleZh, s.titleEn, s.userId, s.status, s.createdAt)"
+                        + " FROM Story s WHERE s.userId = :userId AND s.status = :status"
+                        + " AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id))"
+                        + " ORDER BY s.createdAt DESC, s.id DESC")
+        List<StorySummaryDto> findSummaryPageByUserIdAndStatus(String userId, StoryStatus status,
+                        LocalDateTime createdAt, String id, Limit limit);
+
+        @Query("SELECT new com.storybook.dto.StorySummaryDto(s.id, s.titleZh, s.titleEn, s.userId, s.status, s.createdAt)"
+                        + " FROM Story s WHERE s.userId = :userId AND s.status = :status"
+                        + " AND (LOWER(s.titleZh) LIKE :pattern ESCAPE '\\' OR LOWER(s.titleEn) LIKE :pattern ESCAPE '\\')"
+                        + " AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id))"
+                        + " ORDER BY s.createdAt DESC, s.id DESC")
+        List<StorySummaryDto> searchSummaryPageByUserIdAndStatus(String userId, StoryStatus status, String pattern,
+                        LocalDateTime createdAt, String id, Limit limit);
 
         // Find stories by user ID ordered by createdAt desc
         List<Story> findByUserIdOrderByCreatedAtDesc(String userId);
 
-        // Find stories by user ID and status ordered by createdAt desc
-        List<Story> findByUserIdAndStatusOrderByCreatedAtDesc(String userId, StoryStatus status);
-
         // Count created stories by user after a certain date (for daily limits)
         long countByUserIdAndCreatedAtAfter(String userId, java.time.LocalDateTime date);
+
+        // Ids only, for reconciling the DB against story folders without loading entities
+        @Query("SELECT s.id FROM Story s WHERE s.status = :status")
+        List<String> findIdsByStatus(StoryStatus status);
+
+        @Lock(LockModeType.PESSIMISTIC_WRITE) // Held until the sweep's update/delete in the same transaction
+        @Query("SELECT s.id FROM Story s WHERE s.id IN :ids AND s.status = :status")
+        List<String> findIdsByIdInAndStatus(Collection<String> ids, StoryStatus status);
+
+        // Set-based status change for a batch of stories (reconciliation), skipping any whose status moved on
+        @Modifying
+        @Query("UPDATE Story s SET s.status = :status, s.updatedAt = :updatedAt WHERE s.id IN :ids AND s.status = :expected")
+        int updateStatusByIdIn(Collection<String> ids, StoryStatus expected, StoryStatus status, java.time.LocalDateTime updatedAt);
+
+        @Modifying
+        @Query("DELETE FROM Story s WHERE s.id IN :ids AND s.status = :expected")
+        int deleteByIdIn(Collection<String> ids, StoryStatus expected);
 }
@@ -1,7 +1,22 @@
 package com.storybook.repository;
 
+import com.storybook.dto.StyleSummaryDto;
 import com.storybook.entity.StoryStyle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface StoryStyleRepository extends JpaRepository<StoryStyle, Long> {
+
+    // Styles of a whole page of stories in one query, for list views (cover thumbnail when derived)
+    @Query("SELECT new com.storybook.dto.StyleSummaryDto(st.story.id, st.name, st.nameEn, COALESCE(st.coverThumbnail, st.coverImage))"
+            + " FROM StoryStyle st WHERE st.story.id IN :storyIds ORDER BY st.id")
+    List<StyleSummaryDto> findSummariesByStoryIdIn(Collection<String> storyIds);
+
+    @Modifying
+    @Query("DELETE FROM StoryStyle st WHERE st.story.id IN :storyIds")
+    int deleteByStoryIdIn(Collection<String> storyIds);
 }
@@ -0,0 +1,19 @@
+package com.storybook.repository;
+
+import com.storybook.entity.StorySyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StorySyncStateRepository extends JpaRepository<StorySyncState, String> {
+
+    @Query("SELECT s.storyId FROM StorySyncState s")
+    List<String> findAllStoryIds();
+
+    @Modifying
+    @Query("DELETE FROM StorySyncState s WHERE s.storyId IN :storyIds")
+    int deleteByStoryIdIn(Collection<String> storyIds);
+}
@@ -0,0 +1,16 @@
+package com.storybook.security;
+
+import java.security.Principal;
+
+/**
+ * Principal built from the signed claims of a JWT. {@link #getName()} is the username,
+ * like the UserDetails principal of the database lookup, so {@code auth.getName()} works
+ * the same in both modes.
+ */
+public record AuthenticatedUser(Long id, String username, int tokenVersion) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,47 @@
+package com.storybook.security;
+
+import com.storybook.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentUser} parameters. A {@code Long} id comes straight from the token
+ * claims when the request was authenticated statelessly; a {@code User} comes from
+ * {@link CurrentUserCache}, so neither costs a query on the hot path.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final CurrentUserCache currentUserCache;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && (parameter.getParameterType() == User.class || parameter.getParameterType() == Long.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getPrincipal())) {
+            throw new AuthenticationCredentialsNotFoundException("Not logged in");
+        }
+        if (parameter.getParameterType() == Long.class && auth.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        String username = auth.getName();
+        User user = currentUserCache.get(username)
+                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+        return parameter.getParameterType() == Long.class ? user.getId() : user;
+    }
+}
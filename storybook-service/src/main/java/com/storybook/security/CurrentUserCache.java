@@ -0,0 +1,80 @@
+package com.storybook.security;
+
+import com.storybook.entity.User;
+import com.storybook.repository.UserRepository;
+import com.storybook.service.InvalidationVersions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded username-to-User cache for resolving the current user. Entries are evicted when
+ * the user row changes (see {@link UserChangeListener}) and expire after a TTL, which bounds
+ * staleness for changes made by other instances.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserCache {
+
+    private final UserRepository userRepository;
+    private final Map<String, Entry> users = new ConcurrentHashMap<>();
+
+    // Bumped on every eviction; a load that raced with one is not cached
+    private final InvalidationVersions versions = new InvalidationVersions(64);
+
+    @Value("${storybook.cache.users.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${storybook.cache.users.ttl-ms:300000}")
+    private long ttlMs;
+
+    /**
+     * A copy of the cached user, so callers may modify it without touching the cache.
+     */
+    public Optional<User> get(String username) {
+        long now = System.currentTimeMillis();
+        Entry entry = users.get(username);
+        if (entry == null || entry.expiresAt() <= now) {
+            long version = versions.current(username);
+            Optional<User> loaded = userRepository.findByUsername(username);
+            if (loaded.isEmpty()) {
+                users.remove(username); // Drop an expired entry of a deleted user
+                return Optional.empty();
+            }
+            entry = new Entry(loaded.get(), now + ttlMs);
+            put(username, entry, now, version);
+        }
+        return Optional.of(copy(entry.user()));
+    }
+
+    public void evict(String username) {
+        versions.bump(username); // Before the remove, see put()
+        users.remove(username);
+    }
+
+    private void put(String username, Entry entry, long now, long version) {
+        if (users.size() >= maxEntries) {
+            users.values().removeIf(e -> e.expiresAt() <= now);
+            if (users.size() >= maxEntries) {
+                users.clear(); // Only costs one query per active user
+            }
+        }
+        // The version is checked under the key's lock: an evict() that bumped it earlier refuses the
+        // put, one that bumps it later waits for this compute and then removes the entry
+        users.compute(username, (key, previous) -> versions.unchanged(username, version) ? entry : previous);
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        BeanUtils.copyProperties(user, copy);
+        return copy;
+    }
+
+    private record Entry(User user, long expiresAt) {
+    }
+}
@@ -1,11 +1,15 @@
 package com.storybook.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -15,6 +19,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -22,23 +27,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionCache tokenVersionCache;
+    private final CurrentUserCache currentUserCache;
+
+    // true: principal and roles come from the signed claims; false: user is loaded from the DB per request
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities());
+            Claims claims = jwt != null ? jwtUtils.parseClaims(jwt).orElse(null) : null;
+            if (claims != null && isCurrent(claims)) {
+                UsernamePasswordAuthenticationToken authentication = stateless && claims.containsKey(JwtUtils.CLAIM_USER_ID)
+                        ? fromClaims(claims)
+                        : fromDatabase(claims.getSubject()); // Also tokens issued before claims carried the user
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (Exception e) {
@@ -48,6 +54,45 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Tokens issued before the user's last password change are revoked
+    private boolean isCurrent(Claims claims) {
+        Long userId = claims.get(JwtUtils.CLAIM_USER_ID, Long.class);
+        if (userId == null) {
+            // Issued before tokens carried a version: only valid while the password was never changed
+            boolean current = currentUserCache.get(claims.getSubject())
+                    .map(user -> user.getTokenVersion() == 0)
+                    .orElse(false);
+            if (!current) {
+                logger.debug("Rejected revoked legacy token of " + claims.getSubject());
+            }
+            return current;
+        }
+        if (!tokenVersionCache.isCurrent(userId, tokenVersion(claims))) {
+            logger.debug("Rejected revoked token of user " + userId);
+            return false;
+        }
+        return true;
+    }
+
+    private static int tokenVersion(Claims claims) {
+        Integer version = claims.get(JwtUtils.CLAIM_TOKEN_VERSION, Integer.class);
+        return version != null ? version : 0;
+    }
+
+    private UsernamePasswordAuthenticationToken fromClaims(Claims claims) {
+        Long userId = claims.get(JwtUtils.CLAIM_USER_ID, Long.class);
+        List<?> roles = claims.get(JwtUtils.CLAIM_ROLES, List.class);
+        List<GrantedAuthority> authorities = roles == null ? List.of()
+                : roles.stream().map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString())).toList();
+        AuthenticatedUser principal = new AuthenticatedUser(userId, claims.getSubject(), tokenVersion(claims));
+        return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+    }
+
+    private UsernamePasswordAuthenticationToken fromDatabase(String username) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -0,0 +1,99 @@
+package com.storybook.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt hashing and verification off the Tomcat request threads, on a small pool
+ * with a bounded queue. When the queue is full, work is rejected at once, so a burst of
+ * logins cannot tie up the threads that serve stories. Also picks the BCrypt cost at
+ * startup: the highest strength whose hash still fits the target latency on this machine.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    // 0 = half the available cores
+    @Value("${storybook.auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${storybook.auth.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    // Fixed BCrypt strength; 0 = calibrate against target-ms
+    @Value("${storybook.auth.bcrypt.strength:0}")
+    private int fixedStrength;
+
+    @Value("${storybook.auth.bcrypt.target-ms:250}")
+    private long targetMs;
+
+    @Value("${storybook.auth.bcrypt.min-strength:10}")
+    private int minStrength;
+
+    @Value("${storybook.auth.bcrypt.max-strength:14}")
+    private int maxStrength;
+
+    private ThreadPoolExecutor executor;
+    private int strength;
+
+    @PostConstruct
+    public void init() {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        strength = fixedStrength > 0 ? fixedStrength : calibrate();
+        log.info("Password hashing on {} threads (queue {}), BCrypt strength {}.", size, queueCapacity, strength);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public int strength() {
+        return strength;
+    }
+
+    /**
+     * Runs {@code task} on the hashing pool.
+     *
+     * @throws RejectedExecutionException when the pool and its queue are full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    // Each step doubles the cost, so time the minimum once and extrapolate
+    private int calibrate() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        encoder.encode("warm-up");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(best));
+        int calibrated = minStrength;
+        while (calibrated < maxStrength && millis * 2 <= targetMs) {
+            calibrated++;
+            millis *= 2;
+        }
+        log.info("BCrypt strength {} takes ~{} ms (target {} ms).", calibrated, millis, targetMs);
+        return calibrated;
+    }
+}
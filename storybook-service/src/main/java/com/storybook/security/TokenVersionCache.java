@@ -0,0 +1,60 @@
+package com.storybook.security;
+
+import com.storybook.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current token version per user, so revoked tokens are rejected without a query on every
+ * request. A version is re-read from the database once it is older than the TTL, which
+ * bounds how long another instance keeps accepting tokens revoked elsewhere.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenVersionCache {
+
+    private static final int MAX_ENTRIES = 100_000;
+
+    private final UserRepository userRepository;
+    private final Map<Long, Entry> versions = new ConcurrentHashMap<>();
+
+    @Value("${jwt.version-check-ttl-ms:60000}")
+    private long ttlMs;
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        long now = System.currentTimeMillis();
+        Entry entry = versions.get(userId);
+        if (entry == null || entry.expiresAt() <= now) {
+            // Deleted users have no version, their tokens are never current
+            int version = userRepository.findTokenVersionById(userId).orElse(-1);
+            entry = new Entry(version, now + ttlMs);
+            put(userId, entry, now);
+        }
+        return entry.version() == tokenVersion;
+    }
+
+    /**
+     * Records a version change made on this instance, effective immediately.
+     */
+    public void update(Long userId, int tokenVersion) {
+        long now = System.currentTimeMillis();
+        put(userId, new Entry(tokenVersion, now + ttlMs), now);
+    }
+
+    private void put(Long userId, Entry entry, long now) {
+        if (versions.size() >= MAX_ENTRIES) {
+            versions.values().removeIf(e -> e.expiresAt() <= now);
+            if (versions.size() >= MAX_ENTRIES) {
+                versions.clear(); // Only costs one query per active user
+            }
+        }
+        versions.put(userId, entry);
+    }
+
+    private record Entry(int version, long expiresAt) {
+    }
+}
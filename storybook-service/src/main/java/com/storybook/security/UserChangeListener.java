@@ -0,0 +1,36 @@
+package com.storybook.security;
+
+import com.storybook.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts a user from {@link CurrentUserCache} whenever its row is updated or deleted.
+ * Evicts again after commit, so a request that re-read the old row in between does not
+ * leave it cached.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserChangeListener {
+
+    private final CurrentUserCache currentUserCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        String username = user.getUsername();
+        currentUserCache.evict(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    currentUserCache.evict(username);
+                }
+            });
+        }
+    }
+}
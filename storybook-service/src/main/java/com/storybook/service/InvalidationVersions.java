@@ -0,0 +1,41 @@
+package com.storybook.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Guards a cache against storing a value loaded before a concurrent invalidation.
+ * Read {@link #current} before loading, {@link #bump} before removing an entry, and only
+ * store the loaded value if {@link #unchanged} still holds, checked under the same lock
+ * the removal takes. Keys share striped counters, so an invalidation may occasionally
+ * refuse an unrelated put, which only costs a reload.
+ */
+public final class InvalidationVersions {
+
+    private final AtomicLongArray versions;
+
+    public InvalidationVersions(int stripes) {
+        this.versions = new AtomicLongArray(stripes);
+    }
+
+    public long current(Object key) {
+        return versions.get(stripe(key));
+    }
+
+    public boolean unchanged(Object key, long version) {
+        return versions.get(stripe(key)) == version;
+    }
+
+    public void bump(Object key) {
+        versions.incrementAndGet(stripe(key));
+    }
+
+    public void bumpAll() {
+        for (int i = 0; i < versions.length(); i++) {
+            versions.incrementAndGet(i);
+        }
+    }
+
+    private int stripe(Object key) {
+        return Math.floorMod(key.hashCode(), versions.length());
+    }
+}
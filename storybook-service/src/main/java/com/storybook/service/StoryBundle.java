@@ -0,0 +1,203 @@
+package com.storybook.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout of a story bundle: an uncompressed ustar archive whose size and bytes are fixed
+ * before anything is sent, so it can be served with a Content-Length, byte ranges and a
+ * strong ETag. Headers and content.json are held in memory; file entries are streamed
+ * from disk when written.
+ */
+public final class StoryBundle {
+
+    private static final int BLOCK = 512;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private long length;
+    private String etag;
+
+    public long length() {
+        return length;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public void addBytes(String name, byte[] content, long modifiedAt) {
+        addHeader(name, content.length, modifiedAt);
+        add(new BytesSegment(content));
+        addPadding(content.length);
+    }
+
+    public void addFile(String name, Path file, long size, long modifiedAt) {
+        addHeader(name, size, modifiedAt);
+        add(new FileSegment(file, size));
+        addPadding(size);
+    }
+
+    /**
+     * Appends the two empty blocks that end a tar archive. No entries can follow.
+     */
+    public void finish() {
+        add(new BytesSegment(new byte[2 * BLOCK]));
+    }
+
+    /**
+     * Writes {@code count} bytes of the archive starting at {@code start}.
+     */
+    public void writeTo(WritableByteChannel out, long start, long count) throws IOException {
+        long position = 0;
+        long end = start + count;
+        for (Segment segment : segments) {
+            long segmentEnd = position + segment.length();
+            if (segmentEnd > start && position < end) {
+                long from = Math.max(start, position) - position;
+                long to = Math.min(end, segmentEnd) - position;
+                segment.write(out, from, to - from);
+            }
+            position = segmentEnd;
+            if (position >= end) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Whether {@code name} fits a ustar header, directly or split into prefix and name.
+     */
+    public static boolean fitsHeader(String name) {
+        return splitName(name.getBytes(StandardCharsets.UTF_8)) >= 0;
+    }
+
+    private void add(Segment segment) {
+        segments.add(segment);
+        length += segment.length();
+    }
+
+    private void addPadding(long size) {
+        int padding = (int) ((BLOCK - size % BLOCK) % BLOCK);
+        if (padding > 0) {
+            add(new BytesSegment(new byte[padding]));
+        }
+    }
+
+    private void addHeader(String name, long size, long modifiedAt) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int split = splitName(nameBytes);
+        if (split < 0) {
+            throw new IllegalArgumentException("Name too long for a tar header: " + name);
+        }
+        byte[] header = new byte[BLOCK];
+        if (split == 0) {
+            System.arraycopy(nameBytes, 0, header, 0, nameBytes.length);
+        } else {
+            System.arraycopy(nameBytes, split + 1, header, 0, nameBytes.length - split - 1);
+            System.arraycopy(nameBytes, 0, header, 345, split); // prefix field
+        }
+        octal(header, 100, 8, 0644);
+        octal(header, 108, 8, 0);
+        octal(header, 116, 8, 0);
+        octal(header, 124, 12, size);
+        octal(header, 136, 12, modifiedAt / 1000);
+        header[156] = '0'; // Regular file
+        System.arraycopy("ustar\u000000".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 8);
+
+        // Checksum is computed with its own field filled with spaces
+        for (int i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        octal(header, 148, 7, checksum);
+        add(new BytesSegment(header));
+    }
+
+    // 0 when the name fits the name field, the index of the splitting '/' when it needs the prefix, -1 when it does not fit
+    private static int splitName(byte[] name) {
+        if (name.length <= 100) {
+            return 0;
+        }
+        for (int i = Math.min(name.length - 1, 155); i > 0; i--) {
+            if (name[i] == '/' && name.length - i - 1 <= 100) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Zero-padded octal number terminated by NUL, as tar headers expect
+    private static void octal(byte[] header, int offset, int fieldLength, long value) {
+        String digits = Long.toOctalString(value);
+        int width = fieldLength - 1;
+        if (digits.length() > width) {
+            throw new IllegalArgumentException("Value too large for tar header: " + value);
+        }
+        String padded = "0".repeat(width - digits.length()) + digits;
+        System.arraycopy(padded.getBytes(StandardCharsets.US_ASCII), 0, header, offset, width);
+        header[offset + width] = 0;
+    }
+
+    private interface Segment {
+        long length();
+
+        void write(WritableByteChannel out, long offset, long count) throws IOException;
+    }
+
+    private record BytesSegment(byte[] bytes) implements Segment {
+
+        @Override
+        public long length() {
+            return bytes.length;
+        }
+
+        @Override
+        public void write(WritableByteChannel out, long offset, long count) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, (int) offset, (int) count);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+
+    private record FileSegment(Path file, long size) implements Segment {
+
+        @Override
+        public long length() {
+            return size;
+        }
+
+        @Override
+        public void write(WritableByteChannel out, long offset, long count) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                // A re-sync rewrote the file since the layout was computed: abort rather than send a corrupt archive
+                if (channel.size() != size) {
+                    throw new IOException("File changed while bundling: " + file.getFileName());
+                }
+                long position = offset;
+                long end = offset + count;
+                while (position < end) {
+                    long sent = channel.transferTo(position, end - position, out);
+                    if (sent <= 0) {
+                        throw new IOException("Short transfer of " + file.getFileName());
+                    }
+                    position += sent;
+                }
+            }
+        }
+    }
+}
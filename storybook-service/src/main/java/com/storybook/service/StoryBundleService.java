@@ -0,0 +1,8 @@
+package com.storybook.service;
+
+import java.util.Optional;
+
+public interface StoryBundleService {
+    // content.json plus the selected style's page images (downscaled when width is given) and audio (one language when lang is given)
+    Optional<StoryBundle> getBundle(String storyId, Integer width, String lang);
+}
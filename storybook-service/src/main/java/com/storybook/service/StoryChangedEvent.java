@@ -0,0 +1,16 @@
+package com.storybook.service;
+
+/**
+ * Published whenever a story row changes. Components that keep derived state (search
+ * index, caches) listen for it after the surrounding transaction commits.
+ */
+public record StoryChangedEvent(String storyId, Change change) {
+
+    public enum Change {
+        CREATED, // New row, e.g. generation started
+        CONTENT, // Titles, pages or styles re-synced
+        STATUS,  // Story status changed (published, failed, archived)
+        AUDIO,   // Custom dubbing applied
+        DELETED  // Row removed
+    }
+}
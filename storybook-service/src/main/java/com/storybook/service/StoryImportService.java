@@ -0,0 +1,10 @@
+package com.storybook.service;
+
+import com.storybook.dto.BulkImportReport;
+
+import java.io.InputStream;
+
+public interface StoryImportService {
+    // Reads NDJSON StoryImportItems and writes them in batches, one transaction per batch
+    BulkImportReport importStories(InputStream ndjson);
+}
@@ -1,16 +1,21 @@
 package com.storybook.service;
 
+import com.storybook.dto.CachedResponse;
+import com.storybook.dto.CursorPage;
 import com.storybook.dto.StoryJsonDto;
+import com.storybook.dto.StorySummaryDto;
 import com.storybook.entity.Story;
 import com.storybook.entity.StoryStatus;
 import java.util.List;
 import java.util.Optional;
 
 public interface StoryService {
-    List<Story> getAllStories(String userId, String keyword);
-    List<Story> getStoriesByStatus(String userId, StoryStatus status, String keyword);
+    CursorPage<StorySummaryDto> getAllStories(String userId, String keyword, String cursor, Integer limit);
+    CursorPage<StorySummaryDto> getStoriesByStatus(String userId, StoryStatus status, String keyword, String cursor, Integer limit);
     Optional<Story> getStoryById(String id);
         Optional<StoryJsonDto> getStoryDetail(String id);
+        Optional<CachedResponse> getStoryMetadataResponse(String id); // getStoryById serialized, cached until the story changes
+        Optional<CachedResponse> getStoryDetailResponse(String id); // getStoryDetail serialized, cached until the story changes
             String initiateStoryGeneration(String userId, String prompt, String style, Long voiceId);
             void redubStory(String storyId, Long voiceId, String userId);
             void handleN8NCallback(String storyId, String status, String errorMessage, String type);
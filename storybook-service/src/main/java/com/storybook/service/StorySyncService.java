@@ -1,7 +1,49 @@
 package com.storybook.service;
 
+import com.storybook.dto.ReconcileReport;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 public interface StorySyncService {
-    void syncStories(); // For full rescan
+    void syncStories(); // For full rescan, blocks until done
     void syncStoryFiles(String storyId); // For single story after N8N callback
     void syncCustomAudio(String storyId, String userId); // For redub callback
-}
\ No newline at end of file
+    SyncOutcome syncStoryFolder(String storyId); // For filesystem watcher, creates the story if missing
+    List<String> listStoryFolders(); // Story folder names under the stories root, empty if missing
+    List<String> listUnsyncedStoryFolders(); // Folders never synced into the DB, for the lazy-mode crawler
+    Map<SyncOutcome, Integer> syncStoryFolders(List<String> storyIds, SyncListener listener); // Parallel, one transaction per story
+    ReconcileReport reconcile(boolean dryRun); // Sweep published stories whose folder was deleted
+    ReconcileReport reconcile(Collection<String> storyIdsOnDisk, boolean dryRun);
+
+    // EAGER syncs every folder at startup, LAZY materializes stories on first access
+    enum SyncMode {
+        EAGER,
+        LAZY
+    }
+
+    // Result of syncing a single story folder
+    enum SyncOutcome {
+        SYNCED,
+        SKIPPED,
+        FAILED,
+        CANCELLED
+    }
+
+    // Progress, throttling and cancellation hooks for syncStoryFolders, called from worker threads
+    interface SyncListener {
+        SyncListener NONE = new SyncListener() {
+        };
+
+        default boolean isCancelled() {
+            return false;
+        }
+
+        default void beforeStory(String storyId) throws InterruptedException {
+        }
+
+        default void afterStory(String storyId, SyncOutcome outcome) {
+        }
+    }
+}
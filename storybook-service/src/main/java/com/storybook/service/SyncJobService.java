@@ -0,0 +1,21 @@
+package com.storybook.service;
+
+import com.storybook.dto.SyncJobStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SyncJobService {
+    SyncJobStatus startJob(List<String> storyIds); // Queues a background sync, null or empty for a full sync
+    List<SyncJobStatus> listJobs(); // Newest first, running and recent jobs
+    Optional<SyncJobStatus> getJob(String jobId);
+    Optional<SyncJobStatus> cancelJob(String jobId);
+    SyncReadiness getReadiness(); // State of the startup sync
+
+    enum SyncReadiness {
+        PENDING,
+        SYNCING,
+        READY,
+        FAILED
+    }
+}
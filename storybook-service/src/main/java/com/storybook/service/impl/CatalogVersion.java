@@ -0,0 +1,50 @@
+package com.storybook.service.impl;
+
+import com.storybook.service.StoryChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of the public catalog, bumped after every committed change that can
+ * alter the feed (publish, unpublish, re-synced titles or covers, deletes). Seeded from
+ * the clock so it keeps increasing across restarts of this node.
+ */
+@Component
+@Slf4j
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private volatile long lastModified = System.currentTimeMillis(); // Epoch millis of the last bump
+
+    public long current() {
+        return version.get();
+    }
+
+    public long lastModified() {
+        return lastModified;
+    }
+
+    public boolean changedSince(long since) {
+        return version.get() > since;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStoryChanged(StoryChangedEvent event) {
+        switch (event.change()) {
+            case STATUS, CONTENT, DELETED -> bump();
+            default -> {
+                // New GENERATING rows and custom dubbing never show up in the public feed
+            }
+        }
+    }
+
+    private void bump() {
+        long now = System.currentTimeMillis();
+        version.updateAndGet(previous -> Math.max(previous + 1, now));
+        lastModified = now;
+    }
+}
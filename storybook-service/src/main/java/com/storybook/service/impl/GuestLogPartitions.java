@@ -0,0 +1,222 @@
+package com.storybook.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps guest_reading_logs as a PostgreSQL table range-partitioned by day on read_at, so
+ * the quota warm-up only scans today's partition and old days are removed by dropping a
+ * table instead of deleting rows. Partitions are created a few days ahead; once a day is
+ * older than the retention, its rows are rolled up into guest_reading_daily_stats (reads
+ * and distinct guests per story) and the partition is dropped. A DEFAULT partition takes
+ * rows no day partition covers (clock skew, maintenance not run yet) instead of failing
+ * the insert; they move into their day partition when it is created. A plain table from
+ * before partitioning is converted at startup, with expired rows rolled up rather than copied.
+ * The DDL lives here because Hibernate cannot manage partitioned tables.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class GuestLogPartitions implements ApplicationRunner {
+
+    private static final String TABLE = "guest_reading_logs";
+    private static final String LEGACY_TABLE = "guest_reading_logs_legacy";
+    private static final String STATS_TABLE = "guest_reading_daily_stats";
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final DateTimeFormatter PARTITION_DAY = DateTimeFormatter.BASIC_ISO_DATE; // yyyyMMdd
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private ScheduledExecutorService scheduler;
+
+    // Raw rows are kept this many days, older days only survive as daily stats
+    @Value("${storybook.guest.log-retention-days:30}")
+    private int retentionDays;
+
+    // Partitions created ahead of today, so writes at midnight always have a target
+    @Value("${storybook.guest.partitions-ahead-days:3}")
+    private int aheadDays;
+
+    @Value("${storybook.guest.partition-maintenance-interval-minutes:60}")
+    private long maintenanceIntervalMinutes;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> prepareTables());
+            maintain();
+        } catch (Exception e) {
+            log.warn("Could not prepare partitioned {}: {}", TABLE, e.getMessage());
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("guest-log-partitions-"));
+        scheduler.scheduleWithFixedDelay(this::maintainQuietly, maintenanceIntervalMinutes, maintenanceIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates upcoming partitions, then rolls up and drops the expired ones.
+     */
+    public void maintain() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i <= aheadDays; i++) {
+            createPartition(today.plusDays(i));
+        }
+        LocalDate cutoff = today.minusDays(retentionDays);
+        Timestamp cutoffAt = Timestamp.valueOf(cutoff.atStartOfDay());
+        transactionTemplate.executeWithoutResult(status -> {
+            long rolledUp = rollUp(DEFAULT_PARTITION, "read_at < '" + cutoffAt + "'");
+            if (rolledUp > 0) {
+                jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE read_at < ?", cutoffAt);
+            }
+        });
+        for (String partition : partitions()) {
+            LocalDate day = partitionDay(partition);
+            if (day != null && day.isBefore(cutoff)) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    long rolledUp = rollUp(partition, "TRUE");
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                    log.info("Dropped guest log partition {} ({} story rows in daily stats).", partition, rolledUp);
+                });
+            }
+        }
+    }
+
+    private void maintainQuietly() {
+        try {
+            maintain();
+        } catch (Exception e) {
+            log.warn("Guest log partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private void prepareTables() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + STATS_TABLE + " ("
+                + "day date NOT NULL, story_id varchar(255) NOT NULL, "
+                + "reads bigint NOT NULL, guests bigint NOT NULL, "
+                + "PRIMARY KEY (day, story_id))");
+
+        // 'r' plain table, 'p' partitioned table, none on a fresh database
+        List<String> kind = jdbcTemplate.queryForList(
+                "SELECT c.relkind::text FROM pg_class c WHERE c.oid = to_regclass(?)", String.class, TABLE);
+        if (!kind.isEmpty() && "p".equals(kind.get(0))) {
+            createDefaultPartition(); // Tables partitioned before the default partition existed
+            return;
+        }
+        boolean migrate = !kind.isEmpty();
+        if (migrate) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + LEGACY_TABLE);
+        }
+
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + TABLE + "_part_id_seq");
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " ("
+                + "id bigint NOT NULL DEFAULT nextval('" + TABLE + "_part_id_seq'), "
+                + "guest_id varchar(255) NOT NULL, story_id varchar(255) NOT NULL, "
+                + "read_at timestamp(6) NOT NULL, "
+                + "PRIMARY KEY (id, read_at)) PARTITION BY RANGE (read_at)");
+        jdbcTemplate.execute("CREATE INDEX " + TABLE + "_guest_idx ON " + TABLE + " (guest_id, read_at)");
+        createDefaultPartition();
+        if (!migrate) {
+            log.info("Created partitioned {}.", TABLE);
+            return;
+        }
+
+        // Rows past the retention go straight into the daily stats, the rest into day partitions
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        Timestamp cutoffAt = Timestamp.valueOf(cutoff.atStartOfDay());
+        long rolledUp = rollUp(LEGACY_TABLE, "read_at < '" + cutoffAt + "'");
+        LocalDate first = jdbcTemplate.queryForObject(
+                "SELECT CAST(MIN(read_at) AS date) FROM " + LEGACY_TABLE + " WHERE read_at >= ?", LocalDate.class, cutoffAt);
+        if (first != null) {
+            for (LocalDate day = first; !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+                createPartition(day);
+            }
+        }
+        int copied = jdbcTemplate.update("INSERT INTO " + TABLE + " (id, guest_id, story_id, read_at) "
+                + "SELECT id, guest_id, story_id, read_at FROM " + LEGACY_TABLE + " WHERE read_at >= ?", cutoffAt);
+        jdbcTemplate.execute("SELECT setval('" + TABLE + "_part_id_seq', "
+                + "(SELECT COALESCE(MAX(id), 0) + 1 FROM " + LEGACY_TABLE + "), false)");
+        jdbcTemplate.execute("DROP TABLE " + LEGACY_TABLE);
+        log.info("Converted {} to daily partitions: copied {} rows, rolled up older rows into {} story rows.",
+                TABLE, copied, rolledUp);
+    }
+
+    private void createDefaultPartition() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+    }
+
+    // Built detached and then attached: rows of this day already in the default partition would
+    // make a plain CREATE ... PARTITION OF fail, so they are moved over first
+    private void createPartition(LocalDate day) {
+        String partition = PARTITION_PREFIX + PARTITION_DAY.format(day);
+        if (!jdbcTemplate.queryForList("SELECT 1 FROM pg_class WHERE oid = to_regclass(?)", Integer.class, partition).isEmpty()) {
+            return;
+        }
+        Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + TABLE + " INCLUDING DEFAULTS)");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                    + " WHERE read_at >= ? AND read_at < ? RETURNING id, guest_id, story_id, read_at) "
+                    + "INSERT INTO " + partition + " (id, guest_id, story_id, read_at) SELECT * FROM moved", from, to);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + partition
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            if (moved > 0) {
+                log.info("Moved {} guest log rows from {} into {}.", moved, DEFAULT_PARTITION, partition);
+            }
+        });
+    }
+
+    // Adds reads and distinct guests per story and day; callers drop the source rows in the same transaction
+    private long rollUp(String source, String condition) {
+        return jdbcTemplate.update("INSERT INTO " + STATS_TABLE + " (day, story_id, reads, guests) "
+                + "SELECT CAST(read_at AS date), story_id, COUNT(*), COUNT(DISTINCT guest_id) FROM " + source
+                + " WHERE " + condition + " GROUP BY 1, 2 "
+                + "ON CONFLICT (day, story_id) DO UPDATE SET "
+                + "reads = " + STATS_TABLE + ".reads + EXCLUDED.reads, "
+                + "guests = " + STATS_TABLE + ".guests + EXCLUDED.guests");
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname::text FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = to_regclass(?) ORDER BY 1", String.class, TABLE);
+    }
+
+    private static LocalDate partitionDay(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_DAY);
+        } catch (DateTimeParseException e) {
+            return null; // Not one of ours
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.storybook.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides the guest daily story quota in memory. Each guest's stories of the day are kept
+ * in a small array inside one of a fixed number of locked stripes; a stripe drops its
+ * contents the first time it is touched on a new day. New reads are queued and written to
+ * {@code guest_reading_logs} in batches by a background thread, so a guest read issues no
+ * statement at all. Today's rows are loaded at startup so a restart does not reset quotas.
+ * Quotas are per instance.
+ */
+@Component
+@Order(1) // After GuestLogPartitions has created today's partition
+@RequiredArgsConstructor
+@Slf4j
+public class GuestQuotaTracker implements ApplicationRunner {
+
+    private static final int STRIPES = 64;
+    private static final String INSERT_SQL = "INSERT INTO guest_reading_logs (guest_id, story_id, read_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder dropped = new LongAdder();
+    private BlockingQueue<ReadLog> pending;
+    private ScheduledExecutorService flusher;
+
+    @Value("${storybook.guest.daily-stories:2}")
+    private int dailyStories;
+
+    @Value("${storybook.guest.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${storybook.guest.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    // Reads waiting to be logged; beyond this they are counted and dropped (the quota itself is unaffected)
+    @Value("${storybook.guest.max-pending:100000}")
+    private int maxPending;
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        pending = new ArrayBlockingQueue<>(Math.max(1, maxPending));
+        flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("guest-log-flush-"));
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush(); // Whatever is still queued
+    }
+
+    public int dailyStories() {
+        return dailyStories;
+    }
+
+    /**
+     * Whether the guest may open the story today. Re-opening a story already counted is
+     * always allowed; a new story is counted and logged when it fits the quota.
+     */
+    public boolean tryRead(String guestId, String storyId) {
+        return stripe(guestId).record(guestId, storyId, LocalDate.now(), dailyStories);
+    }
+
+    // Loads today's reads so quotas survive a restart
+    @Override
+    public void run(ApplicationArguments args) {
+        LocalDate today = LocalDate.now();
+        try {
+            int[] loaded = {0};
+            // Both bounds, so only today's partition is scanned
+            jdbcTemplate.query("SELECT guest_id, story_id FROM guest_reading_logs WHERE read_at >= ? AND read_at < ?",
+                    rs -> {
+                        String guestId = rs.getString(1);
+                        stripe(guestId).restore(guestId, rs.getString(2), today);
+                        loaded[0]++;
+                    },
+                    Timestamp.valueOf(today.atStartOfDay()), Timestamp.valueOf(today.plusDays(1).atStartOfDay()));
+            log.info("Restored {} guest reads of {}.", loaded[0], today);
+        } catch (Exception e) {
+            log.warn("Could not restore today's guest reads: {}", e.getMessage());
+        }
+    }
+
+    private void flush() {
+        try {
+            List<ReadLog> batch = new ArrayList<>(flushBatchSize);
+            while (pending.drainTo(batch, flushBatchSize) > 0) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, read) -> {
+                    ps.setString(1, read.guestId());
+                    ps.setString(2, read.storyId());
+                    ps.setTimestamp(3, Timestamp.valueOf(read.readAt()));
+                });
+                batch.clear();
+            }
+        } catch (Exception e) {
+            // Only the log is lost, the quota decision was already made in memory
+            log.warn("Failed to write guest reading logs: {}", e.getMessage());
+        }
+        long lost = dropped.sumThenReset();
+        if (lost > 0) {
+            log.warn("Dropped {} guest reading logs, the write queue was full.", lost);
+        }
+    }
+
+    private void enqueue(String guestId, String storyId) {
+        if (!pending.offer(new ReadLog(guestId, storyId, LocalDateTime.now()))) {
+            dropped.increment();
+        }
+    }
+
+    private Stripe stripe(String guestId) {
+        return stripes[Math.floorMod(guestId.hashCode(), STRIPES)];
+    }
+
+    private final class Stripe {
+        private LocalDate day;
+        private final Map<String, String[]> storiesByGuest = new HashMap<>();
+
+        synchronized boolean record(String guestId, String storyId, LocalDate today, int limit) {
+            String[] stories = storiesFor(guestId, today);
+            if (stories != null && Arrays.asList(stories).contains(storyId)) {
+                return true;
+            }
+            int count = stories == null ? 0 : stories.length;
+            if (count >= limit) {
+                return false;
+            }
+            storiesByGuest.put(guestId, append(stories, storyId));
+            enqueue(guestId, storyId); // Non-blocking, the write happens on the flush thread
+            return true;
+        }
+
+        synchronized void restore(String guestId, String storyId, LocalDate today) {
+            String[] stories = storiesFor(guestId, today);
+            if (stories == null || !Arrays.asList(stories).contains(storyId)) {
+                storiesByGuest.put(guestId, append(stories, storyId));
+            }
+        }
+
+        private String[] storiesFor(String guestId, LocalDate today) {
+            if (!today.equals(day)) {
+                storiesByGuest.clear(); // First touch on a new day
+                day = today;
+            }
+            return storiesByGuest.get(guestId);
+        }
+
+        private static String[] append(String[] stories, String storyId) {
+            if (stories == null) {
+                return new String[]{storyId};
+            }
+            String[] grown = Arrays.copyOf(stories, stories.length + 1);
+            grown[stories.length] = storyId;
+            return grown;
+        }
+    }
+
+    private record ReadLog(String guestId, String storyId, LocalDateTime readAt) {
+    }
+}
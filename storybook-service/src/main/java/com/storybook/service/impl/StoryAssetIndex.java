@@ -0,0 +1,308 @@
+package com.storybook.service.impl;
+
+import com.storybook.service.StoryChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory view of the files in each story folder, built from one directory walk per
+ * story so the sync and read paths can answer "does page-3-en.mp3 exist" without a stat
+ * call each time. Entries are refreshed whenever the story is synced.
+ */
+@Component
+@Slf4j
+public class StoryAssetIndex {
+
+    public static final String STORY_JSON = "story.json";
+    public static final String DERIVED_DIR = ".derived"; // Generated files, see StoryImageDeriver
+
+    @Value("${storybook.stories-path:../stories}")
+    private String storiesPath;
+
+    @Value("${storybook.cache.assets.max-entries:5000}")
+    private int maxEntries;
+
+    // Least-recently-read stories are dropped beyond max-entries; the lock is never held during a walk
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, StoryAssets> index = new LinkedHashMap<>(256, 0.75f, true); // Access order
+
+    /**
+     * Cached assets for a story, scanning the folder on first access.
+     */
+    public StoryAssets get(String storyId) {
+        lock.lock();
+        try {
+            StoryAssets cached = index.get(storyId);
+            if (cached != null) {
+                return cached;
+            }
+        } finally {
+            lock.unlock();
+        }
+        StoryAssets scanned = scan(storyId);
+        lock.lock();
+        try {
+            StoryAssets raced = index.putIfAbsent(storyId, scanned); // A concurrent refresh() wins
+            evictIfNeeded();
+            return raced != null ? raced : scanned;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Re-scans the story folder, used by the sync before it reads any files.
+     */
+    public StoryAssets refresh(String storyId) {
+        StoryAssets assets = scan(storyId);
+        lock.lock();
+        try {
+            index.put(storyId, assets);
+            evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+        return assets;
+    }
+
+    public void evict(String storyId) {
+        lock.lock();
+        try {
+            index.remove(storyId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStoryChanged(StoryChangedEvent event) {
+        if (event.change() == StoryChangedEvent.Change.DELETED) {
+            evict(event.storyId());
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<String> it = index.keySet().iterator();
+        while (index.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private StoryAssets scan(String storyId) {
+        Path storyDir = Paths.get(storiesPath, storyId);
+        Map<String, FileStat> rootFiles = new TreeMap<>();
+        Map<String, Map<String, FileStat>> subfolders = new TreeMap<>();
+        Map<String, Map<String, FileStat>> derived = new TreeMap<>();
+        if (!Files.isDirectory(storyDir)) {
+            return new StoryAssets(storyDir.toFile(), false, rootFiles, subfolders, derived);
+        }
+
+        try {
+            // Depth 2 covers story.json + audio in the story folder and the style/user subfolders,
+            // depth 3 the .derived folders inside the style folders
+            Files.walkFileTree(storyDir, EnumSet.noneOf(FileVisitOption.class), 3, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (dir.equals(storyDir) || dir.getFileName().toString().equals(DERIVED_DIR)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    if (isHidden(dir) || !dir.getParent().equals(storyDir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    subfolders.put(dir.getFileName().toString(), new TreeMap<>());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (isHidden(file)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    Path parent = file.getParent();
+                    if (attrs.isDirectory()) {
+                        return FileVisitResult.CONTINUE; // Only reported here at max depth, inside .derived
+                    }
+                    FileStat stat = new FileStat(attrs.size(), attrs.lastModifiedTime().toMillis());
+                    if (parent.getFileName().toString().equals(DERIVED_DIR)) {
+                        // Keyed by the folder owning .derived, "" for the story folder itself
+                        String owner = parent.getParent().equals(storyDir) ? "" : parent.getParent().getFileName().toString();
+                        derived.computeIfAbsent(owner, k -> new TreeMap<>()).put(file.getFileName().toString(), stat);
+                    } else if (parent.equals(storyDir)) {
+                        rootFiles.put(file.getFileName().toString(), stat);
+                    } else {
+                        subfolders.computeIfAbsent(parent.getFileName().toString(), k -> new TreeMap<>())
+                                .put(file.getFileName().toString(), stat);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    log.warn("Cannot read {} while indexing story {}: {}", file, storyId, exc.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to index story folder {}: {}", storyDir, e.getMessage());
+        }
+        return new StoryAssets(storyDir.toFile(), true, rootFiles, subfolders, derived);
+    }
+
+    private static boolean isHidden(Path path) {
+        return path.getFileName().toString().startsWith(".");
+    }
+
+    public record FileStat(long size, long lastModified) {
+
+        /**
+         * Short token that changes whenever the file is rewritten, used as the ?v= of media URLs.
+         */
+        public String version() {
+            return Long.toString(lastModified, 36) + Long.toString(size, 36);
+        }
+    }
+
+    /**
+     * Immutable snapshot of one story folder: root files (story.json, page-N-{lang}.mp3)
+     * and per-subfolder files (style folders with page-N.png, user folders with page-N.mp3).
+     */
+    public static final class StoryAssets {
+
+        private final File storyDir;
+        private final boolean exists;
+        private final Map<String, FileStat> rootFiles;
+        private final Map<String, Map<String, FileStat>> subfolders;
+        private final Map<String, Map<String, FileStat>> derived;
+
+        StoryAssets(File storyDir, boolean exists, Map<String, FileStat> rootFiles,
+                    Map<String, Map<String, FileStat>> subfolders, Map<String, Map<String, FileStat>> derived) {
+            this.storyDir = storyDir;
+            this.exists = exists;
+            this.rootFiles = Collections.unmodifiableMap(rootFiles);
+            this.subfolders = unmodifiableFolders(subfolders);
+            this.derived = unmodifiableFolders(derived);
+        }
+
+        private static Map<String, Map<String, FileStat>> unmodifiableFolders(Map<String, Map<String, FileStat>> folders) {
+            Map<String, Map<String, FileStat>> copy = new TreeMap<>();
+            folders.forEach((name, files) -> copy.put(name, Collections.unmodifiableMap(files)));
+            return Collections.unmodifiableMap(copy);
+        }
+
+        public boolean exists() {
+            return exists;
+        }
+
+        public File storyDir() {
+            return storyDir;
+        }
+
+        public Map<String, FileStat> rootFiles() {
+            return rootFiles;
+        }
+
+        public Map<String, FileStat> subfolderFiles(String name) {
+            return subfolders.getOrDefault(name, Map.of());
+        }
+
+        /**
+         * Files in the .derived folder of a subfolder, or of the story folder when {@code subfolder} is null.
+         */
+        public Map<String, FileStat> derivedFiles(String subfolder) {
+            return derived.getOrDefault(subfolder == null ? "" : subfolder, Map.of());
+        }
+
+        public boolean hasSubfolder(String name) {
+            return name != null && subfolders.containsKey(name);
+        }
+
+        public List<String> subfolderNames() {
+            return List.copyOf(subfolders.keySet());
+        }
+
+        /**
+         * Subfolders holding page images, i.e. style folders as opposed to user audio folders.
+         */
+        public List<String> styles() {
+            return subfolders.entrySet().stream()
+                    .filter(e -> e.getValue().keySet().stream().anyMatch(n -> n.startsWith("page-") && n.endsWith(".png")))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+
+        /**
+         * story.json in the story folder (MVP2+), or null when missing.
+         */
+        public FileStat storyJson() {
+            return rootFiles.get(STORY_JSON);
+        }
+
+        /**
+         * story.json inside a style folder (MVP3 layout), or null when missing.
+         */
+        public FileStat storyJson(String styleId) {
+            return subfolderFiles(styleId).get(STORY_JSON);
+        }
+
+        /**
+         * Version token of a file in the story folder ({@code subfolder} null) or a subfolder, null when missing.
+         */
+        public String version(String subfolder, String fileName) {
+            FileStat stat = subfolder == null ? rootFiles.get(fileName) : subfolderFiles(subfolder).get(fileName);
+            return stat != null ? stat.version() : null;
+        }
+
+        public boolean hasPageImage(String styleId, int pageNumber) {
+            return subfolderFiles(styleId).containsKey("page-" + pageNumber + ".png");
+        }
+
+        public boolean hasAudio(int pageNumber, String lang) {
+            return rootFiles.containsKey("page-" + pageNumber + "-" + lang + ".mp3");
+        }
+
+        public boolean hasCustomAudio(String userId, int pageNumber) {
+            return subfolderFiles(userId).containsKey("page-" + pageNumber + ".mp3");
+        }
+
+        /**
+         * Per-user custom audio: user folder name to the page numbers that have a dubbed mp3.
+         */
+        public Map<String, List<Integer>> customAudio() {
+            Map<String, List<Integer>> result = new HashMap<>();
+            subfolders.forEach((name, files) -> {
+                List<Integer> pages = files.keySet().stream()
+                        .filter(n -> n.matches("page-\\d+\\.mp3"))
+                        .map(n -> Integer.parseInt(n.substring(5, n.length() - 4)))
+                        .sorted()
+                        .toList();
+                if (!pages.isEmpty()) {
+                    result.put(name, pages);
+                }
+            });
+            return result;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.storybook.service.impl;
+
+import com.storybook.entity.AudioTrackPage;
+import com.storybook.entity.StoryAudioTrack;
+import com.storybook.repository.StoryAudioTrackRepository;
+import com.storybook.service.impl.StoryAssetIndex.FileStat;
+import com.storybook.service.impl.StoryAssetIndex.StoryAssets;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Joins a story's per-page MP3s into one track in a {@code .derived} folder, cutting at
+ * frame boundaries so the result is a valid stream that plays across page turns without
+ * reopening a connection or decoder. ID3 tags and Xing/Info/VBRI header frames of the
+ * pages are dropped; they would describe only the first page. Tracks whose page files
+ * are unchanged since the last build are left alone. Building reads and writes whole
+ * MP3s, so it runs outside transactions and hands back the row changes to store.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StoryAudioTrackBuilder {
+
+    private static final String CUSTOM_PREFIX = "custom-";
+
+    private static final int[][] BITRATES = { // kbps by [table][index]
+            {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448}, // MPEG-1 layer I
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},    // MPEG-1 layer II
+            {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320},     // MPEG-1 layer III
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},    // MPEG-2/2.5 layer I
+            {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160}          // MPEG-2/2.5 layer II and III
+    };
+    private static final int[][] SAMPLE_RATES = {
+            {11025, 12000, 8000},  // MPEG-2.5
+            {},                    // Reserved
+            {22050, 24000, 16000}, // MPEG-2
+            {44100, 48000, 32000}  // MPEG-1
+    };
+
+    private final StoryAudioTrackRepository storyAudioTrackRepository;
+
+    @Value("${storybook.audio.join:true}")
+    private boolean enabled;
+
+    /**
+     * Rebuilds the zh/en narration tracks of a story as needed, plus the custom dubbing
+     * track of {@code customUserId} when not null. Only files are written here, so it runs
+     * outside any transaction; the returned row changes are stored with {@link #apply}.
+     */
+    public List<TrackUpdate> build(String storyId, StoryAssets assets, String customUserId) {
+        Map<String, StoryAudioTrack> existing = existingTracks(storyId);
+        List<TrackUpdate> updates = new ArrayList<>();
+        for (String lang : List.of("zh", "en")) {
+            Pattern pattern = Pattern.compile("page-(\\d+)-" + lang + "\\.mp3");
+            buildTrack(updates, existing, storyId, lang, null, assets, null, "track-" + lang + ".mp3",
+                    pages(assets.rootFiles(), pattern));
+        }
+        if (customUserId != null) {
+            buildCustomTrack(updates, existing, storyId, customUserId, assets);
+        }
+        return updates;
+    }
+
+    /**
+     * Rebuilds the track of a user's custom dubbing in stories/{storyId}/{userId}.
+     */
+    public List<TrackUpdate> buildCustom(String storyId, String userId, StoryAssets assets) {
+        List<TrackUpdate> updates = new ArrayList<>();
+        buildCustomTrack(updates, existingTracks(storyId), storyId, userId, assets);
+        return updates;
+    }
+
+    /**
+     * Stores the row changes from {@link #build}; call inside a transaction.
+     */
+    public void apply(String storyId, List<TrackUpdate> updates) {
+        for (TrackUpdate update : updates) {
+            Optional<StoryAudioTrack> existing = storyAudioTrackRepository.findByStoryIdAndTrackKey(storyId, update.trackKey());
+            if (update.track() == null) {
+                existing.ifPresent(storyAudioTrackRepository::delete);
+            } else {
+                update.track().setId(existing.map(StoryAudioTrack::getId).orElse(null));
+                storyAudioTrackRepository.save(update.track());
+            }
+        }
+    }
+
+    private Map<String, StoryAudioTrack> existingTracks(String storyId) {
+        Map<String, StoryAudioTrack> existing = new HashMap<>();
+        storyAudioTrackRepository.findByStoryIdOrderByTrackKey(storyId)
+                .forEach(track -> existing.put(track.getTrackKey(), track));
+        return existing;
+    }
+
+    private void buildCustomTrack(List<TrackUpdate> updates, Map<String, StoryAudioTrack> existing,
+                                  String storyId, String userId, StoryAssets assets) {
+        buildTrack(updates, existing, storyId, "zh", userId, assets, userId, "track.mp3",
+                pages(assets.subfolderFiles(userId), Pattern.compile("page-(\\d+)\\.mp3")));
+    }
+
+    private void buildTrack(List<TrackUpdate> updates, Map<String, StoryAudioTrack> existingTracks,
+                            String storyId, String lang, String userId, StoryAssets assets,
+                            String folder, String trackFile, TreeMap<Integer, String> pages) {
+        String trackKey = userId != null ? CUSTOM_PREFIX + userId : lang;
+        StoryAudioTrack existing = existingTracks.get(trackKey);
+        Path derivedDir = folder == null
+                ? assets.storyDir().toPath().resolve(StoryAssetIndex.DERIVED_DIR)
+                : assets.storyDir().toPath().resolve(folder).resolve(StoryAssetIndex.DERIVED_DIR);
+        if (!enabled || pages.isEmpty()) {
+            if (existing != null) {
+                deleteQuietly(derivedDir.resolve(trackFile));
+                updates.add(new TrackUpdate(trackKey, null));
+            }
+            return;
+        }
+
+        Map<String, FileStat> sourceFiles = folder == null ? assets.rootFiles() : assets.subfolderFiles(folder);
+        TreeMap<String, FileStat> sources = new TreeMap<>();
+        pages.values().forEach(name -> sources.put(name, sourceFiles.get(name)));
+        String sourceDigest = StoryFingerprints.filesDigest(sources);
+        FileStat current = assets.derivedFiles(folder).get(trackFile);
+        if (existing != null && sourceDigest.equals(existing.getSourceDigest())
+                && current != null && Long.valueOf(current.size()).equals(existing.getByteLength())) {
+            return; // Up to date
+        }
+
+        Path sourceDir = folder == null ? assets.storyDir().toPath() : assets.storyDir().toPath().resolve(folder);
+        try {
+            Files.createDirectories(derivedDir);
+            Path target = derivedDir.resolve(trackFile);
+            List<AudioTrackPage> offsets = join(sourceDir, pages, target);
+            BasicFileAttributes attributes = Files.readAttributes(target, BasicFileAttributes.class);
+            FileStat written = new FileStat(attributes.size(), attributes.lastModifiedTime().toMillis());
+
+            String base = "/stories/" + storyId + "/" + (folder != null ? folder + "/" : "")
+                    + StoryAssetIndex.DERIVED_DIR + "/" + trackFile;
+            StoryAudioTrack track = new StoryAudioTrack();
+            track.setStoryId(storyId);
+            track.setTrackKey(trackKey);
+            track.setLang(lang);
+            track.setUserId(userId);
+            track.setUrl(StoryPageWriter.versioned(base, written.version()));
+            track.setByteLength(written.size());
+            AudioTrackPage last = offsets.get(offsets.size() - 1);
+            track.setDurationMs(last.getStartMs() + last.getDurationMs());
+            track.setSourceDigest(sourceDigest);
+            track.setPages(offsets);
+            updates.add(new TrackUpdate(trackKey, track));
+            log.info("Joined {} pages into audio track {} of story {} ({} ms).", offsets.size(), trackKey, storyId,
+                    track.getDurationMs());
+        } catch (IOException e) {
+            // Readers fall back to the per-page files
+            log.warn("Cannot join audio track {} of story {}: {}", trackKey, storyId, e.getMessage());
+            if (existing != null) {
+                updates.add(new TrackUpdate(trackKey, null));
+            }
+        }
+    }
+
+    // Page number -> file name, in page order
+    private static TreeMap<Integer, String> pages(Map<String, FileStat> files, Pattern pattern) {
+        TreeMap<Integer, String> pages = new TreeMap<>();
+        for (String name : files.keySet()) {
+            Matcher matcher = pattern.matcher(name);
+            if (matcher.matches()) {
+                pages.put(Integer.parseInt(matcher.group(1)), name);
+            }
+        }
+        return pages;
+    }
+
+    // Written to a temp file and moved into place, so readers never see a partial track
+    private List<AudioTrackPage> join(Path sourceDir, TreeMap<Integer, String> pages, Path target) throws IOException {
+        List<AudioTrackPage> offsets = new ArrayList<>(pages.size());
+        Path temp = Files.createTempFile(target.getParent(), ".tmp-", ".mp3");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long byteOffset = 0;
+                long samples = 0;
+                Format format = null;
+                for (Map.Entry<Integer, String> page : pages.entrySet()) {
+                    byte[] data = Files.readAllBytes(sourceDir.resolve(page.getValue()));
+                    Frames frames = frames(data, page.getValue());
+                    if (format == null) {
+                        format = frames.format();
+                    } else if (!format.equals(frames.format())) {
+                        throw new IOException(page.getValue() + " is encoded differently from the previous pages");
+                    }
+                    long pageBytes = frames.end() - frames.start();
+                    ByteBuffer buffer = ByteBuffer.wrap(data, frames.start(), frames.end() - frames.start());
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    long startMs = samples * 1000 / format.sampleRate();
+                    samples += frames.samples();
+                    long endMs = samples * 1000 / format.sampleRate(); // From total samples, so rounding does not drift
+                    offsets.add(new AudioTrackPage(page.getKey(), byteOffset, pageBytes, startMs, endMs - startMs));
+                    byteOffset += pageBytes;
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return offsets;
+    }
+
+    /**
+     * Finds the audio frames of one MP3: skips a leading ID3v2 tag, resynchronizes past junk,
+     * stops at trailing tags and drops the Xing/Info/VBRI header frame.
+     */
+    static Frames frames(byte[] data, String name) throws IOException {
+        int position = 0;
+        if (data.length >= 10 && data[0] == 'I' && data[1] == 'D' && data[2] == '3') {
+            int size = ((data[6] & 0x7f) << 21) | ((data[7] & 0x7f) << 14) | ((data[8] & 0x7f) << 7) | (data[9] & 0x7f);
+            position = 10 + size + ((data[5] & 0x10) != 0 ? 10 : 0); // Footer flag
+        }
+
+        Format format = null;
+        long samples = 0;
+        int start = -1;
+        boolean first = true;
+        while (position + 4 <= data.length) {
+            Header header = Header.parse(data, position);
+            boolean valid = header != null && position + header.length() <= data.length
+                    && (format == null ? confirms(data, position + header.length(), header) : header.format().equals(format));
+            if (!valid) {
+                if (format != null) {
+                    break; // Trailing ID3v1/APE tag or garbage
+                }
+                position++; // Still looking for the first frame
+                continue;
+            }
+            if (format == null) {
+                format = header.format();
+            }
+            if (first && header.isInfoFrame(data, position)) {
+                position += header.length(); // Describes this file only, not the joined track
+                first = false;
+                continue;
+            }
+            first = false;
+            if (start < 0) {
+                start = position;
+            }
+            samples += header.samples();
+            position += header.length();
+        }
+        if (format == null || samples == 0) {
+            throw new IOException(name + " contains no MPEG audio frames");
+        }
+        return new Frames(format, start, position, samples);
+    }
+
+    // A false sync word inside a tag is unlikely to be followed by another matching header
+    private static boolean confirms(byte[] data, int next, Header header) {
+        if (next + 4 > data.length) {
+            return next == data.length;
+        }
+        Header following = Header.parse(data, next);
+        return following != null && following.format().equals(header.format());
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * A track row to store, or to delete when {@code track} is null.
+     */
+    public record TrackUpdate(String trackKey, StoryAudioTrack track) {
+    }
+
+    record Format(int version, int layer, int sampleRate, boolean mono) {
+    }
+
+    record Frames(Format format, int start, int end, long samples) { // Audio frames are data[start, end)
+    }
+
+    private record Header(Format format, int length, int samples) {
+
+        static Header parse(byte[] data, int position) {
+            int b1 = data[position + 1] & 0xff;
+            int b2 = data[position + 2] & 0xff;
+            int b3 = data[position + 3] & 0xff;
+            if ((data[position] & 0xff) != 0xff || (b1 & 0xe0) != 0xe0) {
+                return null;
+            }
+            int version = (b1 >> 3) & 3; // 0 = 2.5, 2 = 2, 3 = 1
+            int layer = 4 - ((b1 >> 1) & 3); // 1..3, 4 = reserved
+            int bitrateIndex = b2 >> 4;
+            int sampleRateIndex = (b2 >> 2) & 3;
+            if (version == 1 || layer == 4 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+                return null; // Reserved values; free-format streams are not supported
+            }
+            boolean mpeg1 = version == 3;
+            int table = mpeg1 ? layer - 1 : (layer == 1 ? 3 : 4);
+            int bitrate = BITRATES[table][bitrateIndex] * 1000;
+            int sampleRate = SAMPLE_RATES[version][sampleRateIndex];
+            int padding = (b2 >> 1) & 1;
+            int samples = layer == 1 ? 384 : (layer == 3 && !mpeg1 ? 576 : 1152);
+            int length = layer == 1
+                    ? (12 * bitrate / sampleRate + padding) * 4
+                    : samples / 8 * bitrate / sampleRate + padding;
+            return new Header(new Format(version, layer, sampleRate, (b3 >> 6) == 3), length, samples);
+        }
+
+        // LAME/Xing "Xing"/"Info" tag after the side info, or Fraunhofer "VBRI" at a fixed offset
+        boolean isInfoFrame(byte[] data, int position) {
+            if (format.layer() != 3) {
+                return false;
+            }
+            int sideInfo = format.version() == 3 ? (format.mono() ? 17 : 32) : (format.mono() ? 9 : 17);
+            return hasTag(data, position + 4 + sideInfo, "Xing") || hasTag(data, position + 4 + sideInfo, "Info")
+                    || hasTag(data, position + 36, "VBRI");
+        }
+
+        private static boolean hasTag(byte[] data, int offset, String tag) {
+            return offset + 4 <= data.length && new String(data, offset, 4, StandardCharsets.ISO_8859_1).equals(tag);
+        }
+    }
+}
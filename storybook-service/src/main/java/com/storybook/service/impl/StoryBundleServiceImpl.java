@@ -0,0 +1,125 @@
+package com.storybook.service.impl;
+
+import com.storybook.dto.CachedResponse;
+import com.storybook.entity.Story;
+import com.storybook.repository.StoryPageRepository;
+import com.storybook.repository.StoryRepository;
+import com.storybook.service.StoryBundle;
+import com.storybook.service.StoryBundleService;
+import com.storybook.service.StoryService;
+import com.storybook.service.impl.StoryAssetIndex.FileStat;
+import com.storybook.service.impl.StoryAssetIndex.StoryAssets;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Builds story bundles. Entry names are the file paths relative to the story folder, i.e.
+ * the media URL without "/stories/{id}/" and the "?v=" query, so an offline reader can map
+ * every URL in content.json to its entry.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StoryBundleServiceImpl implements StoryBundleService {
+
+    public static final String CONTENT_ENTRY = "content.json";
+
+    private final StoryService storyService;
+    private final StoryRepository storyRepository;
+    private final StoryPageRepository storyPageRepository;
+    private final StoryAssetIndex storyAssetIndex;
+    private final StoryImageDeriver storyImageDeriver;
+
+    // Not transactional: in lazy sync mode the content lookup may sync the story in its own
+    // write transaction, which must not join a surrounding read-only one
+    @Override
+    public Optional<StoryBundle> getBundle(String storyId, Integer width, String lang) {
+        if (width != null && Arrays.stream(storyImageDeriver.pageWidths()).noneMatch(w -> w == width)) {
+            throw new IllegalArgumentException("Unsupported width: " + width);
+        }
+        if (lang != null && !lang.equals("zh") && !lang.equals("en")) {
+            throw new IllegalArgumentException("Unsupported lang: " + lang);
+        }
+        // Content first: it materializes the story in lazy sync mode
+        Optional<CachedResponse> content = storyService.getStoryDetailResponse(storyId);
+        if (content.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<Story> story = storyRepository.findById(storyId);
+        List<Integer> pageNumbers = storyPageRepository.findPageNumbersByStoryId(storyId);
+        if (story.isEmpty() || pageNumbers.isEmpty()) {
+            return Optional.empty(); // Unsynced legacy stories have no page rows to bundle
+        }
+        String styleId = story.get().getSelectedStyleId();
+        StoryAssets assets = storyAssetIndex.get(storyId);
+
+        List<Entry> files = new ArrayList<>();
+        for (int pageNumber : pageNumbers) {
+            if (styleId != null) {
+                String derivedName = width != null ? StoryImageDeriver.pageFileName(pageNumber, width) : null;
+                FileStat derived = derivedName != null ? assets.derivedFiles(styleId).get(derivedName) : null;
+                if (derived != null) {
+                    addIfPresent(files, styleId + "/" + StoryAssetIndex.DERIVED_DIR + "/" + derivedName, derived);
+                } else {
+                    // Not derived yet: the full-size image
+                    addIfPresent(files, styleId + "/page-" + pageNumber + ".png",
+                            assets.subfolderFiles(styleId).get("page-" + pageNumber + ".png"));
+                }
+            }
+            for (String language : lang != null ? List.of(lang) : List.of("zh", "en")) {
+                String audioName = "page-" + pageNumber + "-" + language + ".mp3";
+                addIfPresent(files, audioName, assets.rootFiles().get(audioName));
+            }
+        }
+
+        StoryBundle bundle = new StoryBundle();
+        byte[] contentBody = content.get().getBody();
+        long newest = files.stream().mapToLong(entry -> entry.stat().lastModified()).max().orElse(0);
+        bundle.addBytes(CONTENT_ENTRY, contentBody, newest);
+        MessageDigest digest = sha256();
+        digest.update(content.get().getEtag().getBytes(StandardCharsets.UTF_8));
+        for (Entry entry : files) {
+            Path file = assets.storyDir().toPath().resolve(entry.name());
+            bundle.addFile(entry.name(), file, entry.stat().size(), entry.stat().lastModified());
+            digest.update((entry.name() + ":" + entry.stat().size() + ":" + entry.stat().lastModified() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        bundle.finish();
+        // Same content, files and options give the same bytes, so the ETag can be strong
+        bundle.setEtag("\"bundle-" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"");
+        return Optional.of(bundle);
+    }
+
+    private static void addIfPresent(List<Entry> files, String name, FileStat stat) {
+        if (stat == null) {
+            return;
+        }
+        if (!StoryBundle.fitsHeader(name)) {
+            log.warn("Skipping {} in bundle: path too long for a tar entry.", name);
+            return;
+        }
+        files.add(new Entry(name, stat));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(String name, FileStat stat) {
+    }
+}
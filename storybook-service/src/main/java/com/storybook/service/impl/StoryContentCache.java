@@ -0,0 +1,170 @@
+package com.storybook.service.impl;
+
+import com.storybook.dto.CacheStats;
+import com.storybook.dto.CachedResponse;
+import com.storybook.service.InvalidationVersions;
+import com.storybook.service.StoryChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of serialized story responses keyed by storyId and response kind.
+ * Entries are weighed by their size in bytes and evicted least-recently-read first once
+ * either the entry or the weight limit is exceeded. All entries of a story are dropped
+ * after every commit that changes it (see {@link StoryChangedEvent}).
+ */
+@Component
+@Slf4j
+public class StoryContentCache {
+
+    public enum Kind {
+        CONTENT,  // /api/stories/{id}/content
+        METADATA  // /api/stories/{id}
+    }
+
+    private static final int ENTRY_OVERHEAD = 128; // Object headers, map entry, ETag
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true); // Access order
+    private long totalWeight;
+
+    // Bumped on every invalidation; a load that raced with one is not cached
+    private final InvalidationVersions versions = new InvalidationVersions(256);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Value("${storybook.cache.content.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${storybook.cache.content.max-weight-bytes:67108864}")
+    private long maxWeight;
+
+    /**
+     * Cached response, or the result of {@code loader} which is cached when present.
+     */
+    public Optional<CachedResponse> get(String storyId, Kind kind, Function<String, Optional<CachedResponse>> loader) {
+        Key key = new Key(storyId, kind);
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits.increment();
+                return Optional.of(entry.response());
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+
+        long version = versions.current(storyId);
+        Optional<CachedResponse> loaded = loader.apply(storyId);
+        loaded.ifPresent(response -> put(key, response, version));
+        return loaded;
+    }
+
+    public void invalidate(String storyId) {
+        versions.bump(storyId);
+        lock.lock();
+        try {
+            for (Kind kind : Kind.values()) {
+                Entry removed = entries.remove(new Key(storyId, kind));
+                if (removed != null) {
+                    totalWeight -= removed.weight();
+                    invalidations.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        versions.bumpAll();
+        lock.lock();
+        try {
+            invalidations.add(entries.size());
+            entries.clear();
+            totalWeight = 0;
+        } finally {
+            lock.unlock();
+        }
+        log.info("Story content cache cleared.");
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStoryChanged(StoryChangedEvent event) {
+        invalidate(event.storyId());
+    }
+
+    public CacheStats stats() {
+        CacheStats stats = new CacheStats();
+        lock.lock();
+        try {
+            stats.setEntries(entries.size());
+            stats.setWeightBytes(totalWeight);
+        } finally {
+            lock.unlock();
+        }
+        stats.setMaxEntries(maxEntries);
+        stats.setMaxWeightBytes(maxWeight);
+        stats.setHits(hits.sum());
+        stats.setMisses(misses.sum());
+        long requests = stats.getHits() + stats.getMisses();
+        stats.setHitRatio(requests > 0 ? (double) stats.getHits() / requests : 0);
+        stats.setEvictions(evictions.sum());
+        stats.setInvalidations(invalidations.sum());
+        return stats;
+    }
+
+    private void put(Key key, CachedResponse response, long version) {
+        int weight = ENTRY_OVERHEAD + response.getBody().length
+                + (response.getGzipBody() != null ? response.getGzipBody().length : 0);
+        if (weight > maxWeight) {
+            return; // Would evict everything else
+        }
+        lock.lock();
+        try {
+            // Checked under the lock: invalidate() bumps the version before taking it
+            if (!versions.unchanged(key.storyId(), version)) {
+                return;
+            }
+            Entry previous = entries.put(key, new Entry(response, weight));
+            if (previous != null) {
+                totalWeight -= previous.weight();
+            }
+            totalWeight += weight;
+            evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalWeight > maxWeight) && it.hasNext()) {
+            totalWeight -= it.next().getValue().weight();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private record Key(String storyId, Kind kind) {
+    }
+
+    private record Entry(CachedResponse response, int weight) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.storybook.service.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for computing the content fingerprint of a story folder.
+ */
+final class StoryFingerprints {
+
+    private StoryFingerprints() {
+    }
+
+    /**
+     * Digest over name, size and mtime of the audio files in the story folder, the files
+     * of the selected style folder and its derivatives, and the user custom audio folders.
+     * story.json is fingerprinted separately.
+     */
+    static String assetDigest(StoryAssetIndex.StoryAssets assets, String styleId) {
+        MessageDigest digest = sha256();
+        appendFiles(digest, "", assets.rootFiles());
+        appendFiles(digest, styleId + "/", assets.subfolderFiles(styleId));
+        appendFiles(digest, styleId + "/" + StoryAssetIndex.DERIVED_DIR + "/", assets.derivedFiles(styleId));
+        List<String> styles = assets.styles();
+        for (String folder : assets.subfolderNames()) {
+            if (!folder.equals(styleId) && !styles.contains(folder)) {
+                appendFiles(digest, folder + "/", assets.subfolderFiles(folder)); // Custom dubbing of a user
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Digest over name, size and mtime of the given files.
+     */
+    static String filesDigest(Map<String, StoryAssetIndex.FileStat> files) {
+        MessageDigest digest = sha256();
+        appendFiles(digest, "", files);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static String fileHash(File file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void appendFiles(MessageDigest digest, String prefix, Map<String, StoryAssetIndex.FileStat> files) {
+        // The index keeps file names sorted, so the digest is stable across scans
+        files.forEach((name, stat) -> {
+            if (!name.equals(StoryAssetIndex.STORY_JSON)) {
+                String entry = prefix + name + ":" + stat.size() + ":" + stat.lastModified() + "\n";
+                digest.update(entry.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
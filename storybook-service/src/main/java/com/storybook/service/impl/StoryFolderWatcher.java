@@ -0,0 +1,227 @@
+package com.storybook.service.impl;
+
+import com.storybook.service.StorySyncService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches the stories root, every story folder and its style/user subfolders, and
+ * re-syncs a single story once its folder has been quiet for the debounce period.
+ * Picks up files added by hand or by other tools without a full rescan.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StoryFolderWatcher {
+
+    private final StorySyncService storySyncService;
+    private final StoryMaterializer storyMaterializer;
+
+    @Value("${storybook.stories-path:../stories}")
+    private String storiesPath;
+
+    @Value("${storybook.sync.watch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${storybook.sync.watch.debounce-ms:2000}")
+    private long debounceMs;
+
+    private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledFuture<?>> pendingSyncs = new ConcurrentHashMap<>();
+
+    private Path root;
+    private WatchService watchService;
+    private ScheduledExecutorService debouncer;
+    private Thread watchThread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Story folder watcher disabled.");
+            return;
+        }
+        root = Paths.get(storiesPath).toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) {
+            log.warn("Stories directory not found, folder watcher not started: {}", root);
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            register(root);
+            try (DirectoryStream<Path> storyDirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+                for (Path storyDir : storyDirs) {
+                    try {
+                        registerStoryDir(storyDir);
+                    } catch (IOException e) {
+                        // One unreadable folder must not stop watching the others
+                        log.warn("Failed to watch story folder {}: {}", storyDir, e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to start story folder watcher on {}: {}", root, e.getMessage());
+            closeWatchService();
+            return;
+        }
+
+        debouncer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("story-watch-sync-"));
+        watchThread = new Thread(this::watchLoop, "story-folder-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        log.info("Watching {} directories under {} for story changes.", watchedDirs.size(), root);
+    }
+
+    @PreDestroy
+    public void stop() {
+        closeWatchService();
+        if (debouncer != null) {
+            debouncer.shutdownNow();
+        }
+    }
+
+    private void closeWatchService() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("Failed to close story folder watcher: {}", e.getMessage());
+        }
+    }
+
+    private void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path dir = watchedDirs.get(key);
+            if (dir != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        // Events were dropped, re-sync every story folder we know about
+                        log.warn("Story folder watcher overflowed in {}, scheduling re-sync of all watched stories.", dir);
+                        watchedDirs.values().forEach(this::scheduleFor);
+                        continue;
+                    }
+                    Path child = dir.resolve((Path) event.context());
+                    if (event.kind() == ENTRY_CREATE && Files.isDirectory(child)) {
+                        onDirectoryCreated(child);
+                    }
+                    scheduleFor(child);
+                }
+            }
+
+            if (!key.reset()) {
+                watchedDirs.remove(key);
+            }
+        }
+    }
+
+    private void onDirectoryCreated(Path dir) {
+        try {
+            int depth = root.relativize(dir).getNameCount();
+            if (depth == 1) {
+                registerStoryDir(dir); // New story folder, possibly already containing style folders
+            } else if (depth == 2 && !isHidden(dir)) {
+                register(dir); // New style or user folder
+            }
+        } catch (IOException e) {
+            log.warn("Failed to watch new directory {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private void registerStoryDir(Path storyDir) throws IOException {
+        register(storyDir);
+        try (DirectoryStream<Path> subDirs = Files.newDirectoryStream(storyDir, Files::isDirectory)) {
+            for (Path subDir : subDirs) {
+                if (!isHidden(subDir)) {
+                    try {
+                        register(subDir);
+                    } catch (IOException e) {
+                        log.warn("Failed to watch {}: {}", subDir, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private void register(Path dir) throws IOException {
+        WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        watchedDirs.put(key, dir);
+    }
+
+    private void scheduleFor(Path changed) {
+        Path relative = root.relativize(changed);
+        if (relative.getNameCount() == 0 || relative.toString().isEmpty()) {
+            return;
+        }
+        for (Path segment : relative) {
+            if (segment.toString().startsWith(".")) {
+                return; // Hidden and temporary files are never story content
+            }
+        }
+        String storyId = relative.getName(0).toString();
+
+        // Restart the quiet period on every event so a burst of writes causes one sync
+        pendingSyncs.compute(storyId, (id, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            AtomicReference<ScheduledFuture<?>> self = new AtomicReference<>();
+            ScheduledFuture<?> scheduled = debouncer.schedule(() -> runSync(id, self.get()), debounceMs, TimeUnit.MILLISECONDS);
+            self.set(scheduled);
+            return scheduled;
+        });
+    }
+
+    private void runSync(String storyId, ScheduledFuture<?> self) {
+        // Only our own entry: a sync scheduled by an event after this one started must stay cancellable
+        pendingSyncs.remove(storyId, self);
+        storyMaterializer.forget(storyId); // Folder changed, a cached lazy-mode miss may be stale
+        try {
+            StorySyncService.SyncOutcome outcome = storySyncService.syncStoryFolder(storyId);
+            log.info("Folder change in {} synced: {}", storyId, outcome);
+        } catch (Exception e) {
+            log.error("Failed to sync changed story folder {}: {}", storyId, e.getMessage());
+        }
+    }
+
+    private boolean isHidden(Path path) {
+        return path.getFileName().toString().startsWith(".");
+    }
+}
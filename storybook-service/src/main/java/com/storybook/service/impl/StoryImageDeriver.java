@@ -0,0 +1,220 @@
+package com.storybook.service.impl;
+
+import com.storybook.service.impl.StoryAssetIndex.FileStat;
+import com.storybook.service.impl.StoryAssetIndex.StoryAssets;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes downscaled JPEG copies of the page images (and a cover thumbnail from page 1)
+ * into the style folder's {@code .derived} folder during sync. Decoding a full-size page
+ * takes tens of MB, so images are processed on a small fixed pool shared by all sync
+ * workers. Derivatives newer than their source are left alone.
+ */
+@Component
+@Slf4j
+public class StoryImageDeriver {
+
+    private static final Pattern PAGE_IMAGE = Pattern.compile("page-(\\d+)\\.png");
+
+    @Value("${storybook.images.derive:true}")
+    private boolean enabled;
+
+    @Value("${storybook.images.page-widths:480,960}")
+    private String pageWidthsConfig;
+
+    @Value("${storybook.images.cover-width:320}")
+    private int coverWidth;
+
+    @Value("${storybook.images.quality:0.8}")
+    private float quality;
+
+    // Images decoded at the same time
+    @Value("${storybook.images.parallelism:2}")
+    private int parallelism;
+
+    private int[] pageWidths;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        pageWidths = Arrays.stream(pageWidthsConfig.split(","))
+                .map(String::trim)
+                .filter(w -> !w.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .sorted()
+                .toArray();
+        executor = Executors.newFixedThreadPool(Math.max(1, parallelism), new CustomizableThreadFactory("image-derive-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public int[] pageWidths() {
+        return pageWidths;
+    }
+
+    public static String pageFileName(int pageNumber, int width) {
+        return "page-" + pageNumber + "-w" + width + ".jpg";
+    }
+
+    public String coverFileName() {
+        return "cover-w" + coverWidth + ".jpg";
+    }
+
+    /**
+     * Generates missing or stale derivatives for every style folder of the story and blocks
+     * until they are written. Returns the number of files written.
+     */
+    public int derive(StoryAssets assets) {
+        if (!enabled || !assets.exists()) {
+            return 0;
+        }
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (String style : assets.styles()) {
+            File styleDir = new File(assets.storyDir(), style);
+            Map<String, FileStat> derived = assets.derivedFiles(style);
+            assets.subfolderFiles(style).forEach((name, source) -> {
+                Matcher matcher = PAGE_IMAGE.matcher(name);
+                if (!matcher.matches()) {
+                    return;
+                }
+                List<Target> stale = targets(Integer.parseInt(matcher.group(1))).stream()
+                        .filter(target -> isStale(derived.get(target.fileName()), source))
+                        .toList();
+                if (!stale.isEmpty()) {
+                    futures.add(executor.submit(() -> render(new File(styleDir, name),
+                            styleDir.toPath().resolve(StoryAssetIndex.DERIVED_DIR), stale)));
+                }
+            });
+        }
+
+        int written = 0;
+        for (Future<Integer> future : futures) {
+            try {
+                written += future.get();
+            } catch (ExecutionException e) {
+                // The page keeps its full-size image, the next sync retries
+                log.warn("Failed to derive image for story {}: {}", assets.storyDir().getName(), e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                break;
+            }
+        }
+        if (written > 0) {
+            log.info("Wrote {} image derivatives for story {}.", written, assets.storyDir().getName());
+        }
+        return written;
+    }
+
+    private List<Target> targets(int pageNumber) {
+        List<Target> targets = new ArrayList<>();
+        for (int width : pageWidths) {
+            targets.add(new Target(pageFileName(pageNumber, width), width));
+        }
+        if (pageNumber == 1) {
+            targets.add(new Target(coverFileName(), coverWidth));
+        }
+        return targets;
+    }
+
+    private static boolean isStale(FileStat derived, FileStat source) {
+        return derived == null || derived.lastModified() < source.lastModified();
+    }
+
+    private int render(File source, Path derivedDir, List<Target> targets) throws IOException {
+        BufferedImage image = ImageIO.read(source);
+        if (image == null) {
+            throw new IOException("Unsupported image format: " + source.getName());
+        }
+        Files.createDirectories(derivedDir);
+
+        // Largest first, each smaller size is scaled from the previous one
+        List<Target> sorted = new ArrayList<>(targets);
+        sorted.sort(Comparator.comparingInt(Target::width).reversed());
+        BufferedImage current = image;
+        for (Target target : sorted) {
+            current = scale(current, Math.min(target.width(), current.getWidth())); // Never upscale
+            write(current, derivedDir.resolve(target.fileName()));
+        }
+        return sorted.size();
+    }
+
+    // Halves in steps down to the target: a single bilinear pass over a large ratio aliases badly
+    private static BufferedImage scale(BufferedImage source, int width) {
+        BufferedImage current = source;
+        do {
+            int nextWidth = Math.max(width, current.getWidth() / 2);
+            int nextHeight = Math.max(1, Math.round((float) current.getHeight() * nextWidth / current.getWidth()));
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setColor(Color.WHITE); // JPEG has no alpha
+                g.fillRect(0, 0, nextWidth, nextHeight);
+                g.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (current.getWidth() > width);
+        return current;
+    }
+
+    // Written to a temp file and moved into place, so readers never see a partial image
+    private void write(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), ".tmp-", ".jpg");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private record Target(String fileName, int width) {
+    }
+}
@@ -0,0 +1,221 @@
+package com.storybook.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.storybook.dto.BulkImportReport;
+import com.storybook.dto.BulkImportReport.ItemResult;
+import com.storybook.dto.StoryImportItem;
+import com.storybook.dto.StoryJsonDto;
+import com.storybook.entity.Story;
+import com.storybook.entity.StoryStatus;
+import com.storybook.repository.StoryRepository;
+import com.storybook.service.StoryChangedEvent;
+import com.storybook.service.StoryImportService;
+import com.storybook.service.impl.StoryAssetIndex.StoryAssets;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class StoryImportServiceImpl implements StoryImportService {
+
+    private final StoryRepository storyRepository;
+    private final StoryAssetIndex storyAssetIndex;
+    private final StoryPageWriter storyPageWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectReader itemReader;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Items per transaction; the persistence context is cleared after each batch to bound memory
+    @Value("${storybook.import.batch-size:500}")
+    private int batchSize;
+
+    public StoryImportServiceImpl(StoryRepository storyRepository, StoryAssetIndex storyAssetIndex,
+                                  StoryPageWriter storyPageWriter, TransactionTemplate transactionTemplate,
+                                  EntityManager entityManager, ObjectMapper objectMapper,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.storyRepository = storyRepository;
+        this.storyAssetIndex = storyAssetIndex;
+        this.storyPageWriter = storyPageWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.itemReader = objectMapper.readerFor(StoryImportItem.class);
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public BulkImportReport importStories(InputStream ndjson) {
+        long startedAt = System.currentTimeMillis();
+        BulkImportReport report = new BulkImportReport();
+        List<ParsedItem> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.setTotal(report.getTotal() + 1);
+                try {
+                    StoryImportItem item = itemReader.readValue(line);
+                    String error = validate(item);
+                    if (error != null) {
+                        addResult(report, new ItemResult(lineNumber, item.getStoryId(), "FAILED", error));
+                        continue;
+                    }
+                    batch.add(new ParsedItem(lineNumber, item));
+                } catch (JsonProcessingException e) {
+                    addResult(report, new ItemResult(lineNumber, null, "FAILED", "Invalid JSON: " + e.getOriginalMessage()));
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, report);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Bulk import stream aborted: {}", e.getMessage());
+            addResult(report, new ItemResult(0, null, "FAILED", "Stream aborted: " + e.getMessage()));
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, report);
+        }
+
+        report.setElapsedMs(System.currentTimeMillis() - startedAt);
+        log.info("Bulk import finished in {} ms: total={}, created={}, updated={}, failed={}.",
+                report.getElapsedMs(), report.getTotal(), report.getCreated(), report.getUpdated(), report.getFailed());
+        return report;
+    }
+
+    private void writeBatch(List<ParsedItem> batch, BulkImportReport report) {
+        // Scan the folders before the transaction, no connection is held during the directory walks
+        Map<String, StoryAssets> assets = new HashMap<>();
+        List<ParsedItem> writable = new ArrayList<>(batch.size());
+        for (ParsedItem parsed : batch) {
+            String storyId = parsed.item().getStoryId();
+            StoryAssets storyAssets = assets.computeIfAbsent(storyId, storyAssetIndex::refresh);
+            if (storyAssets.exists()) {
+                writable.add(parsed);
+            } else {
+                // A published story without a folder would be archived by the next full sync's reconcile
+                addResult(report, new ItemResult(parsed.line(), storyId, "FAILED", "Folder stories/" + storyId + " not found"));
+            }
+        }
+        if (writable.isEmpty()) {
+            return;
+        }
+
+        List<ItemResult> results = new ArrayList<>(writable.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // One SELECT for the whole batch to tell updates from inserts
+                Map<String, Story> existing = new HashMap<>();
+                storyRepository.findAllById(writable.stream().map(p -> p.item().getStoryId()).toList())
+                        .forEach(story -> existing.put(story.getId(), story));
+
+                for (ParsedItem parsed : writable) {
+                    StoryImportItem item = parsed.item();
+                    Story story = existing.get(item.getStoryId());
+                    boolean isNew = story == null;
+                    boolean statusChanged = isNew || story.getStatus() != StoryStatus.PUBLISHED;
+                    if (isNew) {
+                        story = new Story();
+                        story.setId(item.getStoryId());
+                        story.setUserId(item.getUserId());
+                        existing.put(story.getId(), story); // Duplicate ids later in the batch update this one
+                    }
+                    apply(story, item, assets.get(item.getStoryId()));
+                    if (isNew) {
+                        entityManager.persist(story); // persist, not save(): save() would merge and SELECT again
+                    }
+                    publishChange(story.getId(), isNew ? StoryChangedEvent.Change.CREATED : StoryChangedEvent.Change.CONTENT);
+                    if (statusChanged) {
+                        publishChange(story.getId(), StoryChangedEvent.Change.STATUS);
+                    }
+                    results.add(new ItemResult(parsed.line(), item.getStoryId(), isNew ? "CREATED" : "UPDATED", null));
+                }
+                // Inserts go out as JDBC batches (sequence ids + hibernate.jdbc.batch_size)
+                entityManager.flush();
+                entityManager.clear();
+            });
+            results.forEach(result -> addResult(report, result));
+        } catch (Exception e) {
+            log.error("Bulk import batch of {} items failed: {}", writable.size(), e.getMessage());
+            for (ParsedItem parsed : writable) {
+                addResult(report, new ItemResult(parsed.line(), parsed.item().getStoryId(), "FAILED",
+                        "Batch failed: " + e.getMessage()));
+            }
+        }
+    }
+
+    private void apply(Story story, StoryImportItem item, StoryAssets assets) {
+        StoryJsonDto dto = item.getStory();
+        String fullStory = dto.getFullStory();
+
+        story.setTitleZh(dto.getTitleZh());
+        story.setTitleEn(dto.getTitleEn());
+        story.setDescription(fullStory != null && !fullStory.isBlank()
+                ? fullStory.substring(0, Math.min(fullStory.length(), StoryJsonReader.DESCRIPTION_LENGTH)) : "");
+        story.setSelectedStyleId(item.getStyle());
+        story.setStatus(StoryStatus.PUBLISHED);
+        story.setErrorMessage(null);
+        story.setUpdatedAt(LocalDateTime.now());
+
+        // Audio URLs are only set for files already copied next to the manifest
+        StoryPageWriter.PageDiff pageDiff = storyPageWriter.begin(story, item.getStyle(), assets);
+        dto.getPages().forEach(pageDiff::write);
+        pageDiff.complete(dto.getStyleEn() != null && !dto.getStyleEn().isBlank() ? dto.getStyleEn() : item.getStyle());
+    }
+
+    // Delivered after the batch transaction commits, dropped if it rolls back
+    private void publishChange(String storyId, StoryChangedEvent.Change change) {
+        eventPublisher.publishEvent(new StoryChangedEvent(storyId, change));
+    }
+
+    private String validate(StoryImportItem item) {
+        if (item.getStoryId() == null || item.getStoryId().isBlank()) {
+            return "storyId is required";
+        }
+        if (item.getStoryId().contains("/") || item.getStoryId().contains("\\") || item.getStoryId().startsWith(".")) {
+            return "storyId must be a plain folder name";
+        }
+        if (item.getStyle() == null || item.getStyle().isBlank()) {
+            return "style is required";
+        }
+        if (item.getStory() == null || item.getStory().getPages() == null || item.getStory().getPages().isEmpty()) {
+            return "story.pages is required";
+        }
+        return null;
+    }
+
+    private void addResult(BulkImportReport report, ItemResult result) {
+        switch (result.getStatus()) {
+            case "CREATED" -> report.setCreated(report.getCreated() + 1);
+            case "UPDATED" -> report.setUpdated(report.getUpdated() + 1);
+            default -> report.setFailed(report.getFailed() + 1);
+        }
+        report.getResults().add(result);
+    }
+
+    private record ParsedItem(int line, StoryImportItem item) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.storybook.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.storybook.dto.StoryJsonDto;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Reads story.json through readers derived once from the application ObjectMapper.
+ * ObjectReader is immutable and thread-safe, so the parallel sync workers share them.
+ */
+@Component
+public class StoryJsonReader {
+
+    // Story.description column keeps only the start of fullStory
+    public static final int DESCRIPTION_LENGTH = 200;
+
+    private final ObjectReader storyReader;
+    private final ObjectReader pageReader;
+
+    public StoryJsonReader(ObjectMapper objectMapper) {
+        this.storyReader = objectMapper.readerFor(StoryJsonDto.class);
+        this.pageReader = objectMapper.readerFor(StoryJsonDto.PageDto.class);
+    }
+
+    /**
+     * Binds the whole document, for the read path that returns every page anyway.
+     */
+    public StoryJsonDto read(File file) throws IOException {
+        return storyReader.readValue(file);
+    }
+
+    /**
+     * Token-level read for the sync: hands each page to {@code pageConsumer} as soon as it
+     * is parsed (without binding the whole document) and returns the remaining fields with {@code pages} left null and
+     * {@code fullStory} already cut to {@link #DESCRIPTION_LENGTH} characters.
+     */
+    public StoryJsonDto stream(File file, Consumer<StoryJsonDto.PageDto> pageConsumer) throws IOException {
+        try (JsonParser parser = pageReader.createParser(file)) {
+            return stream(parser, pageConsumer);
+        }
+    }
+
+    public StoryJsonDto stream(InputStream in, Consumer<StoryJsonDto.PageDto> pageConsumer) throws IOException {
+        try (JsonParser parser = pageReader.createParser(in)) {
+            return stream(parser, pageConsumer);
+        }
+    }
+
+    private StoryJsonDto stream(JsonParser parser, Consumer<StoryJsonDto.PageDto> pageConsumer) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("story.json must contain a JSON object");
+        }
+
+        StoryJsonDto header = new StoryJsonDto();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "titleZh" -> header.setTitleZh(text(parser));
+                case "titleEn" -> header.setTitleEn(text(parser));
+                case "styleZh" -> header.setStyleZh(text(parser));
+                case "styleEn" -> header.setStyleEn(text(parser));
+                case "fullStory" -> header.setFullStory(truncatedText(parser, DESCRIPTION_LENGTH));
+                case "pages" -> readPages(parser, pageConsumer);
+                default -> parser.skipChildren(); // Unknown fields, same as @JsonIgnoreProperties
+            }
+        }
+        return header;
+    }
+
+    private void readPages(JsonParser parser, Consumer<StoryJsonDto.PageDto> pageConsumer) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            pageConsumer.accept(pageReader.readValue(parser));
+        }
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_STRING ? parser.getText() : skip(parser);
+    }
+
+    // The parser still buffers the whole token; this only avoids copying it into a full-length String
+    private static String truncatedText(JsonParser parser, int maxLength) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return skip(parser);
+        }
+        int length = parser.getTextLength();
+        return new String(parser.getTextCharacters(), parser.getTextOffset(), Math.min(length, maxLength));
+    }
+
+    private static String skip(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+}
@@ -0,0 +1,124 @@
+package com.storybook.service.impl;
+
+import com.storybook.entity.Story;
+import com.storybook.repository.StoryRepository;
+import com.storybook.service.StorySyncService;
+import com.storybook.service.StorySyncService.SyncMode;
+import com.storybook.service.StorySyncService.SyncOutcome;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lazy sync mode: syncs a story folder the first time the story is requested instead of
+ * at startup. Concurrent requests for the same story share one sync, and folders that
+ * are missing or fail to sync are remembered for a while so they are not retried on
+ * every request.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StoryMaterializer {
+
+    private static final int MAX_NEGATIVE_ENTRIES = 10_000;
+
+    private final StorySyncService storySyncService;
+    private final StoryRepository storyRepository;
+
+    private final Map<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Long> negativeUntil = new ConcurrentHashMap<>(); // storyId -> retry-after millis
+
+    @Value("${storybook.stories-path:../stories}")
+    private String storiesPath;
+
+    @Value("${storybook.sync.mode:EAGER}")
+    private SyncMode syncMode;
+
+    // How long a missing or broken folder is not retried
+    @Value("${storybook.sync.lazy.negative-ttl-ms:60000}")
+    private long negativeTtlMs;
+
+    public boolean isEnabled() {
+        return syncMode == SyncMode.LAZY;
+    }
+
+    /**
+     * Syncs the story folder into the DB if lazy mode is on and the folder exists, then
+     * returns the fresh row. Empty when the story cannot be materialized.
+     */
+    public Optional<Story> materialize(String storyId) {
+        if (!isEnabled() || !isPlainName(storyId)) {
+            return Optional.empty();
+        }
+        Long retryAfter = negativeUntil.get(storyId);
+        if (retryAfter != null) {
+            if (retryAfter > System.currentTimeMillis()) {
+                return Optional.empty();
+            }
+            negativeUntil.remove(storyId);
+        }
+
+        CompletableFuture<Boolean> mine = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = inFlight.putIfAbsent(storyId, mine);
+        boolean synced;
+        if (running != null) {
+            synced = running.join(); // Another request is already syncing this story
+        } else {
+            try {
+                synced = syncFolder(storyId);
+                mine.complete(synced);
+            } catch (RuntimeException e) {
+                mine.complete(false);
+                throw e;
+            } finally {
+                inFlight.remove(storyId);
+            }
+        }
+        return synced ? storyRepository.findById(storyId) : Optional.empty();
+    }
+
+    private boolean syncFolder(String storyId) {
+        if (!new File(storiesPath, storyId).isDirectory()) {
+            rememberMiss(storyId);
+            return false;
+        }
+        long startedAt = System.currentTimeMillis();
+        SyncOutcome outcome = storySyncService.syncStoryFolder(storyId);
+        log.info("Lazily materialized story {} in {} ms: {}.", storyId, System.currentTimeMillis() - startedAt, outcome);
+        if (outcome == SyncOutcome.FAILED) {
+            rememberMiss(storyId);
+            return false;
+        }
+        return true;
+    }
+
+    private void rememberMiss(String storyId) {
+        if (negativeUntil.size() >= MAX_NEGATIVE_ENTRIES) {
+            long now = System.currentTimeMillis();
+            negativeUntil.values().removeIf(until -> until <= now);
+            if (negativeUntil.size() >= MAX_NEGATIVE_ENTRIES) {
+                return; // Still full of live entries, better to retry than to grow without bound
+            }
+        }
+        negativeUntil.put(storyId, System.currentTimeMillis() + negativeTtlMs);
+    }
+
+    /**
+     * Forgets a cached miss, e.g. once the folder watcher has seen the folder appear.
+     */
+    public void forget(String storyId) {
+        negativeUntil.remove(storyId);
+    }
+
+    private static boolean isPlainName(String storyId) {
+        return storyId != null && !storyId.isBlank() && !storyId.contains("/") && !storyId.contains("\\")
+                && !storyId.startsWith(".");
+    }
+}
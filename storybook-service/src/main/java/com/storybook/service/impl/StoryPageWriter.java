@@ -0,0 +1,177 @@
+package com.storybook.service.impl;
+
+import com.storybook.dto.StoryJsonDto;
+import com.storybook.entity.Story;
+import com.storybook.entity.StoryPage;
+import com.storybook.entity.StoryStyle;
+import com.storybook.service.impl.StoryAssetIndex.StoryAssets;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+/**
+ * Writes synced pages and styles onto a managed {@link Story} by diffing against the
+ * rows it already has. Unchanged pages produce no SQL, changed pages are updated
+ * column-wise (see {@code @DynamicUpdate}) and new pages are inserted in JDBC batches.
+ */
+@Component
+@RequiredArgsConstructor
+public class StoryPageWriter {
+
+    private final StoryImageDeriver imageDeriver;
+
+    /**
+     * Starts a diff for one story. Pages are then fed one at a time and
+     * {@link PageDiff#complete(String)} drops pages that are no longer in story.json.
+     */
+    public PageDiff begin(Story story, String styleId, StoryAssets assets) {
+        return new PageDiff(story, styleId, assets, imageDeriver);
+    }
+
+    public static String getImagePath(String storyId, String styleName, int pageNumber) {
+        return "/stories/" + storyId + File.separator + styleName + File.separator + "page-" + pageNumber + ".png";
+    }
+
+    public static String getAudioPath(String storyId, int pageNumber, String lang) {
+        // /stories/{storyId}/page-{pageNumber}-{lang}.mp3
+        return "/stories/" + storyId + "/page-" + pageNumber + "-" + lang + ".mp3";
+    }
+
+    /**
+     * Appends the file's version token, so the media endpoint can serve the URL as immutable.
+     */
+    public static String versioned(String path, String version) {
+        return version != null ? path + "?v=" + version : path;
+    }
+
+    public static String getDerivedPath(String storyId, String styleName, String fileName) {
+        return "/stories/" + storyId + "/" + styleName + "/" + StoryAssetIndex.DERIVED_DIR + "/" + fileName;
+    }
+
+    public static final class PageDiff {
+
+        private final Story story;
+        private final String styleId;
+        private final StoryAssets assets;
+        private final StoryImageDeriver imageDeriver;
+        private final Map<Integer, StoryPage> existingPages = new HashMap<>();
+        // Identity set: Lombok's @Data hashCode on StoryPage would recurse through Story
+        private final Set<StoryPage> keptPages = Collections.newSetFromMap(new IdentityHashMap<>());
+        private int inserted;
+        private int updated;
+
+        private PageDiff(Story story, String styleId, StoryAssets assets, StoryImageDeriver imageDeriver) {
+            this.story = story;
+            this.styleId = styleId;
+            this.assets = assets;
+            this.imageDeriver = imageDeriver;
+            for (StoryPage page : story.getPages()) {
+                existingPages.putIfAbsent(page.getPageNumber(), page);
+            }
+        }
+
+        public void write(StoryJsonDto.PageDto pageDto) {
+            int pageNumber = pageDto.getPageNumber();
+            String storyId = story.getId();
+
+            StoryPage page = existingPages.get(pageNumber);
+            boolean isNew = page == null;
+            if (isNew) {
+                page = new StoryPage();
+                page.setStory(story);
+                page.setPageNumber(pageNumber);
+                story.getPages().add(page);
+                existingPages.put(pageNumber, page);
+            }
+
+            boolean changed = false;
+            changed |= set(page.getTextZh(), pageDto.getTextZh(), page::setTextZh);
+            changed |= set(page.getTextEn(), pageDto.getTextEn(), page::setTextEn);
+            // Image URL still depends on selectedStyleId
+            changed |= set(page.getImageUrl(), versioned(getImagePath(storyId, styleId, pageNumber),
+                    assets.version(styleId, "page-" + pageNumber + ".png")), page::setImageUrl);
+            changed |= set(page.getImageSrcset(), imageSrcset(storyId, pageNumber), page::setImageSrcset);
+            changed |= set(page.getAudioUrlZh(), audioUrl(storyId, pageNumber, "zh"), page::setAudioUrlZh);
+            changed |= set(page.getAudioUrlEn(), audioUrl(storyId, pageNumber, "en"), page::setAudioUrlEn);
+
+            keptPages.add(page);
+            if (isNew) {
+                inserted++;
+            } else if (changed) {
+                updated++;
+            }
+        }
+
+        // Downscaled variants that exist on disk, as an <img srcset> value; null before they are derived
+        private String imageSrcset(String storyId, int pageNumber) {
+            Map<String, StoryAssetIndex.FileStat> derived = assets.derivedFiles(styleId);
+            StringJoiner srcset = new StringJoiner(", ");
+            srcset.setEmptyValue("");
+            for (int width : imageDeriver.pageWidths()) {
+                String fileName = StoryImageDeriver.pageFileName(pageNumber, width);
+                StoryAssetIndex.FileStat stat = derived.get(fileName);
+                if (stat != null) {
+                    srcset.add(versioned(getDerivedPath(storyId, styleId, fileName), stat.version()) + " " + width + "w");
+                }
+            }
+            return srcset.length() > 0 ? srcset.toString() : null;
+        }
+
+        private String audioUrl(String storyId, int pageNumber, String lang) {
+            if (!assets.hasAudio(pageNumber, lang)) {
+                return null;
+            }
+            return versioned(getAudioPath(storyId, pageNumber, lang),
+                    assets.version(null, "page-" + pageNumber + "-" + lang + ".mp3"));
+        }
+
+        public int pageCount() {
+            return keptPages.size();
+        }
+
+        /**
+         * Removes pages missing from the input (orphanRemoval deletes them) and makes the
+         * selected style the story's only style. Returns a short summary for logging.
+         */
+        public String complete(String styleNameEn) {
+            int before = story.getPages().size();
+            story.getPages().removeIf(page -> !keptPages.contains(page));
+            int removed = before - story.getPages().size();
+
+            // One generated style per story for now: keep the matching row, drop the rest
+            // Cover is always page 1 of the selected style
+            String coverImage = versioned(getImagePath(story.getId(), styleId, 1), assets.version(styleId, "page-1.png"));
+            String thumbnailFile = imageDeriver.coverFileName();
+            StoryAssetIndex.FileStat thumbnailStat = assets.derivedFiles(styleId).get(thumbnailFile);
+            String coverThumbnail = thumbnailStat != null
+                    ? versioned(getDerivedPath(story.getId(), styleId, thumbnailFile), thumbnailStat.version()) : null;
+            story.getStyles().removeIf(style -> !styleId.equals(style.getName()));
+            if (story.getStyles().isEmpty()) {
+                story.getStyles().add(new StoryStyle(story, styleId, styleNameEn, coverImage));
+            }
+            StoryStyle style = story.getStyles().get(0);
+            set(style.getNameEn(), styleNameEn, style::setNameEn);
+            set(style.getCoverImage(), coverImage, style::setCoverImage);
+            set(style.getCoverThumbnail(), coverThumbnail, style::setCoverThumbnail);
+
+            return "inserted=" + inserted + ", updated=" + updated + ", removed=" + removed;
+        }
+
+        private static boolean set(String current, String value, Consumer<String> setter) {
+            if (Objects.equals(current, value)) {
+                return false;
+            }
+            setter.accept(value);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.storybook.service.impl;
+
+import com.storybook.dto.ReconcileReport;
+import com.storybook.entity.StoryStatus;
+import com.storybook.repository.StoryAudioTrackRepository;
+import com.storybook.repository.StoryPageRepository;
+import com.storybook.repository.StoryRepository;
+import com.storybook.repository.StoryStyleRepository;
+import com.storybook.repository.StorySyncStateRepository;
+import com.storybook.service.StoryChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mark-and-sweep of stories whose folder was removed from disk. The mark phase is the
+ * set of folder names seen by the sync; the sweep compares it with the ids of published
+ * stories in memory and unpublishes or deletes the difference with set-based statements.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StoryReconciler {
+
+    public enum SweepMode {
+        REPORT,    // Only log what would be swept
+        UNPUBLISH, // Set status to ARCHIVED, keep rows
+        DELETE     // Remove story, pages, styles and sync state
+    }
+
+    private static final int BATCH_SIZE = 1000; // Ids per IN (...) statement
+    private static final int SAMPLE_SIZE = 100;
+
+    private final StoryRepository storyRepository;
+    private final StoryPageRepository storyPageRepository;
+    private final StoryStyleRepository storyStyleRepository;
+    private final StorySyncStateRepository storySyncStateRepository;
+    private final StoryAudioTrackRepository storyAudioTrackRepository;
+    private final StoryAssetIndex storyAssetIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${storybook.stories-path:../stories}")
+    private String storiesPath;
+
+    @Value("${storybook.sync.sweep.mode:UNPUBLISH}")
+    private SweepMode sweepMode;
+
+    // Refuse to sweep more than this share of the catalog at once, e.g. when the volume is not mounted
+    @Value("${storybook.sync.sweep.max-ratio:0.5}")
+    private double maxSweepRatio;
+
+    /**
+     * Sweeps published stories that are not in {@code storyIdsOnDisk}.
+     */
+    public ReconcileReport reconcile(Collection<String> storyIdsOnDisk, boolean dryRun) {
+        Set<String> onDisk = storyIdsOnDisk instanceof Set<String> set ? set : new HashSet<>(storyIdsOnDisk);
+        List<String> published = storyRepository.findIdsByStatus(StoryStatus.PUBLISHED);
+        // The mark set may be from before a long sync, so look again at anything about to be swept
+        List<String> missing = published.stream()
+                .filter(id -> !onDisk.contains(id) && !folderExists(id))
+                .toList();
+
+        ReconcileReport report = new ReconcileReport();
+        report.setFoldersOnDisk(onDisk.size());
+        report.setPublishedInDb(published.size());
+        report.setMissingOnDisk(missing.size());
+        report.setSampleStoryIds(List.copyOf(missing.subList(0, Math.min(SAMPLE_SIZE, missing.size()))));
+
+        if (!missing.isEmpty() && missing.size() > published.size() * maxSweepRatio) {
+            report.setAbortedReason("Refusing to sweep " + missing.size() + " of " + published.size()
+                    + " published stories (max ratio " + maxSweepRatio + "). Check storybook.stories-path.");
+            dryRun = true;
+        }
+        return sweep(missing, dryRun, report);
+    }
+
+    /**
+     * Sweeps a single story whose folder was deleted, as reported by the folder watcher.
+     */
+    public ReconcileReport reconcileRemovedFolder(String storyId) {
+        boolean published = storyRepository.findById(storyId)
+                .map(story -> story.getStatus() == StoryStatus.PUBLISHED)
+                .orElse(false) && !folderExists(storyId); // Re-created since the watcher saw the delete
+        ReconcileReport report = new ReconcileReport();
+        if (published) {
+            report.setPublishedInDb(1);
+            report.setMissingOnDisk(1);
+            report.setSampleStoryIds(List.of(storyId));
+            return sweep(List.of(storyId), false, report);
+        }
+        report.setMode(sweepMode.name());
+        return report;
+    }
+
+    private ReconcileReport sweep(List<String> missing, boolean dryRun, ReconcileReport report) {
+        boolean reportOnly = dryRun || sweepMode == SweepMode.REPORT;
+        report.setDryRun(reportOnly);
+        report.setMode(sweepMode.name());
+
+        if (missing.isEmpty() || reportOnly) {
+            if (!missing.isEmpty()) {
+                log.info("Reconcile ({}): {} published stories have no folder on disk, e.g. {}. {}",
+                        reportOnly ? "dry run" : sweepMode, missing.size(), report.getSampleStoryIds(),
+                        report.getAbortedReason() != null ? report.getAbortedReason() : "");
+            }
+            return report;
+        }
+
+        int affected = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < missing.size(); from += BATCH_SIZE) {
+            List<String> batch = missing.subList(from, Math.min(from + BATCH_SIZE, missing.size()));
+            Integer count = transactionTemplate.execute(status -> {
+                // Only stories still published; a concurrent sync may have re-synced or failed one meanwhile
+                List<String> sweepable = storyRepository.findIdsByIdInAndStatus(batch, StoryStatus.PUBLISHED);
+                if (sweepable.isEmpty()) {
+                    return 0;
+                }
+                StoryChangedEvent.Change change = sweepMode == SweepMode.DELETE
+                        ? StoryChangedEvent.Change.DELETED : StoryChangedEvent.Change.STATUS;
+                sweepable.forEach(id -> eventPublisher.publishEvent(new StoryChangedEvent(id, change)));
+                if (sweepMode == SweepMode.DELETE) {
+                    storyPageRepository.deleteByStoryIdIn(sweepable);
+                    storyStyleRepository.deleteByStoryIdIn(sweepable);
+                    storySyncStateRepository.deleteByStoryIdIn(sweepable);
+                    storyAudioTrackRepository.deleteByStoryIdIn(sweepable);
+                    return storyRepository.deleteByIdIn(sweepable, StoryStatus.PUBLISHED);
+                }
+                return storyRepository.updateStatusByIdIn(sweepable, StoryStatus.PUBLISHED, StoryStatus.ARCHIVED, now);
+            });
+            affected += count != null ? count : 0;
+            batch.forEach(storyAssetIndex::evict);
+        }
+        report.setAffected(affected);
+        log.info("Reconcile ({}): swept {} stories missing on disk.", sweepMode, affected);
+        return report;
+    }
+
+    private boolean folderExists(String storyId) {
+        return Files.isDirectory(Path.of(storiesPath, storyId));
+    }
+}
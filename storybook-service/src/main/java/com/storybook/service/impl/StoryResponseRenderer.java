@@ -0,0 +1,58 @@
+package com.storybook.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.storybook.dto.CachedResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializes a response body once, with the same ObjectMapper Spring MVC uses, and
+ * precomputes its gzip form and strong ETag so cached responses are written as bytes.
+ */
+@Component
+@RequiredArgsConstructor
+public class StoryResponseRenderer {
+
+    private static final int GZIP_MIN_BYTES = 1024; // Smaller bodies gain nothing from compression
+
+    private final ObjectMapper objectMapper;
+
+    public CachedResponse render(String kind, Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            byte[] gzipBody = body.length >= GZIP_MIN_BYTES ? gzip(body) : null;
+            return new CachedResponse(body, gzipBody, etag(kind, body));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + kind + " response", e);
+        }
+    }
+
+    // The serialized body changes exactly when a sync (or status change) changes what clients see
+    private static String etag(String kind, byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + kind + "-" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 3);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,363 @@
+package com.storybook.service.impl;
+
+import com.storybook.dto.CursorPage;
+import com.storybook.dto.PageTextDto;
+import com.storybook.dto.StorySummaryDto;
+import com.storybook.dto.StyleSummaryDto;
+import com.storybook.entity.StoryStatus;
+import com.storybook.repository.StoryPageRepository;
+import com.storybook.repository.StoryRepository;
+import com.storybook.repository.StoryStyleRepository;
+import com.storybook.service.StoryChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over story titles and page text, so keyword search never
+ * runs {@code LIKE '%kw%'} against the DB. Chinese text is indexed as single characters
+ * plus character bigrams, English as lowercase words. The index is built once in the
+ * background at startup and then kept current from {@link StoryChangedEvent}s.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StorySearchIndex {
+
+    private static final int BUILD_BATCH_SIZE = 500;
+    private static final float TITLE_WEIGHT = 10f; // A title match outranks any amount of page text
+    private static final float PAGE_WEIGHT = 1f;
+
+    private final StoryRepository storyRepository;
+    private final StoryStyleRepository storyStyleRepository;
+    private final StoryPageRepository storyPageRepository;
+
+    // Single writer thread: the initial build and incremental updates apply in order
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("search-index-"));
+    private final Set<String> pendingUpdates = ConcurrentHashMap.newKeySet();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, IndexedStory> stories = new HashMap<>();
+    private final NavigableMap<String, Map<String, Float>> postings = new TreeMap<>(); // term -> storyId -> weight
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        indexer.execute(this::build);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStoryChanged(StoryChangedEvent event) {
+        String storyId = event.storyId();
+        // Coalesce bursts for one story (sync publishes CONTENT and STATUS) into one reindex
+        if (pendingUpdates.add(storyId)) {
+            indexer.execute(() -> {
+                pendingUpdates.remove(storyId);
+                reindex(storyId);
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    /**
+     * True once the startup build finished; until then callers fall back to the DB.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ranked search: every query term must match, title matches score above page text,
+     * ties are broken by newest first. {@code userId} null searches all users.
+     */
+    public CursorPage<StorySummaryDto> search(String keyword, StoryStatus status, String userId, String cursor, int limit) {
+        int offset = decodeOffset(cursor);
+        List<String> terms = tokenize(keyword, false);
+        if (terms.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        Predicate<IndexedStory> filter = story -> story.summary.getStatus() == status
+                && (userId == null || userId.equals(story.summary.getUserId()));
+
+        List<Map.Entry<IndexedStory, Float>> ranked;
+        lock.readLock().lock();
+        try {
+            Map<String, Float> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                // The last English word is matched as a prefix, for search-as-you-type
+                boolean prefix = i == terms.size() - 1 && isWordTerm(terms.get(i));
+                Map<String, Float> matches = match(terms.get(i), prefix);
+                scores = scores == null ? new HashMap<>(matches) : intersect(scores, matches);
+                if (scores.isEmpty()) {
+                    return new CursorPage<>(List.of(), null);
+                }
+            }
+            ranked = new ArrayList<>(scores.size());
+            for (Map.Entry<String, Float> entry : scores.entrySet()) {
+                IndexedStory story = stories.get(entry.getKey());
+                if (story != null && filter.test(story)) {
+                    ranked.add(Map.entry(story, entry.getValue()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        ranked.sort(Comparator.<Map.Entry<IndexedStory, Float>>comparingDouble(Map.Entry::getValue).reversed()
+                .thenComparing(e -> e.getKey().summary.getCreatedAt(), Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(e -> e.getKey().summary.getId(), Comparator.reverseOrder()));
+
+        int from = Math.min(offset, ranked.size());
+        int to = Math.min(from + limit, ranked.size());
+        List<StorySummaryDto> items = ranked.subList(from, to).stream().map(e -> e.getKey().summary).toList();
+        return new CursorPage<>(items, to < ranked.size() ? encodeOffset(to) : null);
+    }
+
+    private void build() {
+        long startedAt = System.currentTimeMillis();
+        int count = 0;
+        try {
+            String afterId = "";
+            List<StorySummaryDto> batch;
+            do {
+                batch = storyRepository.findSummaryBatchAfterId(afterId, Limit.of(BUILD_BATCH_SIZE));
+                if (!batch.isEmpty()) {
+                    index(batch);
+                    afterId = batch.get(batch.size() - 1).getId();
+                    count += batch.size();
+                }
+            } while (batch.size() == BUILD_BATCH_SIZE);
+            ready = true;
+            log.info("Search index built in {} ms: {} stories, {} terms.", System.currentTimeMillis() - startedAt, count, termCount());
+        } catch (Exception e) {
+            log.error("Failed to build search index, keyword search stays on the DB: {}", e.getMessage(), e);
+        }
+    }
+
+    private void reindex(String storyId) {
+        try {
+            List<StorySummaryDto> summaries = storyRepository.findSummariesByIdIn(List.of(storyId));
+            if (summaries.isEmpty()) {
+                remove(storyId);
+            } else {
+                index(summaries);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to reindex story {} for search: {}", storyId, e.getMessage());
+        }
+    }
+
+    // Loads styles and page text for a batch of stories in two queries and swaps them into the index
+    private void index(List<StorySummaryDto> summaries) {
+        List<String> ids = summaries.stream().map(StorySummaryDto::getId).toList();
+        Map<String, List<StyleSummaryDto>> styles = storyStyleRepository.findSummariesByStoryIdIn(ids).stream()
+                .collect(Collectors.groupingBy(StyleSummaryDto::getStoryId));
+        Map<String, List<PageTextDto>> pages = storyPageRepository.findTextByStoryIdIn(ids).stream()
+                .collect(Collectors.groupingBy(PageTextDto::getStoryId));
+
+        List<IndexedStory> built = new ArrayList<>(summaries.size());
+        for (StorySummaryDto summary : summaries) {
+            List<StyleSummaryDto> storyStyles = styles.getOrDefault(summary.getId(), List.of());
+            summary.setStyles(storyStyles);
+            summary.setCoverImage(storyStyles.isEmpty() ? null : storyStyles.get(0).getCoverImage());
+            built.add(new IndexedStory(summary, weigh(summary, pages.getOrDefault(summary.getId(), List.of()))));
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (IndexedStory story : built) {
+                removeLocked(story.summary.getId());
+                stories.put(story.summary.getId(), story);
+                story.terms.forEach((term, weight) ->
+                        postings.computeIfAbsent(term, k -> new HashMap<>()).put(story.summary.getId(), weight));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(String storyId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(storyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(String storyId) {
+        IndexedStory previous = stories.remove(storyId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms.keySet()) {
+            Map<String, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(storyId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static Map<String, Float> weigh(StorySummaryDto summary, List<PageTextDto> pages) {
+        Map<String, Float> weights = new HashMap<>();
+        Set<String> titleTerms = new HashSet<>(tokenize(summary.getTitleZh(), true));
+        titleTerms.addAll(tokenize(summary.getTitleEn(), true));
+        titleTerms.forEach(term -> weights.put(term, TITLE_WEIGHT));
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (PageTextDto page : pages) {
+            tokenize(page.getTextZh(), true).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+            tokenize(page.getTextEn(), true).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        }
+        // Dampened term frequency, so one word repeated on every page does not dominate
+        frequencies.forEach((term, tf) -> weights.merge(term, PAGE_WEIGHT * (1 + (float) Math.log(tf)), Float::sum));
+        return weights;
+    }
+
+    private Map<String, Float> match(String term, boolean prefix) {
+        if (!prefix) {
+            return postings.getOrDefault(term, Map.of());
+        }
+        Map<String, Float> merged = new HashMap<>();
+        for (Map<String, Float> posting : postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+            posting.forEach((storyId, weight) -> merged.merge(storyId, weight, Math::max));
+        }
+        return merged;
+    }
+
+    private static Map<String, Float> intersect(Map<String, Float> scores, Map<String, Float> matches) {
+        Map<String, Float> result = new HashMap<>();
+        scores.forEach((storyId, score) -> {
+            Float weight = matches.get(storyId);
+            if (weight != null) {
+                result.put(storyId, score + weight);
+            }
+        });
+        return result;
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into runs of Han characters and runs of letters/digits. Han runs become
+     * character bigrams (plus single characters when indexing, so a one-character query
+     * still matches); letter runs become lowercase words.
+     */
+    static List<String> tokenize(String text, boolean forIndex) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String lower = text.toLowerCase();
+        StringBuilder word = new StringBuilder();
+        List<Integer> han = new ArrayList<>();
+        int i = 0;
+        while (i < lower.length()) {
+            int cp = lower.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.UnicodeScript.of(cp) == Character.UnicodeScript.HAN) {
+                flushWord(word, terms);
+                han.add(cp);
+            } else if (Character.isLetterOrDigit(cp)) {
+                flushHan(han, terms, forIndex);
+                word.appendCodePoint(cp);
+            } else {
+                flushWord(word, terms);
+                flushHan(han, terms, forIndex);
+            }
+        }
+        flushWord(word, terms);
+        flushHan(han, terms, forIndex);
+        return terms;
+    }
+
+    private static void flushWord(StringBuilder word, Collection<String> terms) {
+        if (!word.isEmpty()) {
+            terms.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static void flushHan(List<Integer> han, Collection<String> terms, boolean forIndex) {
+        if (han.isEmpty()) {
+            return;
+        }
+        if (forIndex || han.size() == 1) {
+            han.forEach(cp -> terms.add(new String(Character.toChars(cp))));
+        }
+        for (int i = 0; i + 1 < han.size(); i++) {
+            terms.add(new String(Character.toChars(han.get(i))) + new String(Character.toChars(han.get(i + 1))));
+        }
+        han.clear();
+    }
+
+    private static boolean isWordTerm(String term) {
+        return Character.UnicodeScript.of(term.codePointAt(0)) != Character.UnicodeScript.HAN;
+    }
+
+    // Search results are ranked, not keyset ordered, so the cursor is an offset into the ranking
+    private static String encodeOffset(int offset) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("search|" + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!raw.startsWith("search|")) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            return Math.max(0, Integer.parseInt(raw.substring("search|".length())));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private record IndexedStory(StorySummaryDto summary, Map<String, Float> terms) {
+    }
+}
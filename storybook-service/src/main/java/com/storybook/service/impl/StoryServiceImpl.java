@@ -1,25 +1,39 @@
 package com.storybook.service.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.storybook.dto.AudioTrackDto;
+import com.storybook.dto.CachedResponse;
+import com.storybook.dto.CursorPage;
+import com.storybook.dto.PageCursor;
 import com.storybook.dto.StoryJsonDto;
+import com.storybook.dto.StorySummaryDto;
+import com.storybook.dto.StyleSummaryDto;
 import com.storybook.entity.Story;
+import com.storybook.entity.StoryAudioTrack;
 import com.storybook.entity.StoryStatus;
+import com.storybook.repository.StoryAudioTrackRepository;
 import com.storybook.repository.StoryRepository;
+import com.storybook.repository.StoryStyleRepository;
 import com.storybook.service.N8NService;
+import com.storybook.service.StoryChangedEvent;
 import com.storybook.service.StoryService;
 import com.storybook.service.StorySyncService;
+import com.storybook.service.impl.StoryAssetIndex.StoryAssets;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,53 +41,125 @@ import java.util.UUID;
 public class StoryServiceImpl implements StoryService {
 
     private final StoryRepository storyRepository;
+    private final StoryStyleRepository storyStyleRepository;
+    private final StoryAudioTrackRepository storyAudioTrackRepository;
     private final N8NService n8nService;
     private final StorySyncService storySyncService;
     private final com.storybook.repository.UserVoiceRepository userVoiceRepository;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    @Value("${storybook.stories-path:../stories}")
-    private String storiesPath;
+    private final StoryAssetIndex storyAssetIndex;
+    private final StoryJsonReader storyJsonReader;
+    private final StoryMaterializer storyMaterializer;
+    private final StorySearchIndex storySearchIndex;
+    private final StoryContentCache storyContentCache;
+    private final StoryResponseRenderer storyResponseRenderer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
-    public List<Story> getAllStories(String userId, String keyword) {
+    public CursorPage<StorySummaryDto> getAllStories(String userId, String keyword, String cursor, Integer limit) {
         // Always return all PUBLISHED stories for the public feed, regardless of login
         // status
-        if (keyword != null && !keyword.isBlank()) {
-            return storyRepository
-                    .findByStatusAndTitleZhContainingIgnoreCaseOrStatusAndTitleEnContainingIgnoreCaseOrderByCreatedAtDesc(
-                            StoryStatus.PUBLISHED, keyword, StoryStatus.PUBLISHED, keyword);
+        int pageSize = PageCursor.clampLimit(limit);
+        boolean hasKeyword = keyword != null && !keyword.isBlank();
+        if (hasKeyword && storySearchIndex.isReady()) {
+            // Ranked, served from memory
+            return storySearchIndex.search(keyword, StoryStatus.PUBLISHED, null, cursor, pageSize);
+        }
+        PageCursor after = PageCursor.decode(cursor);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<StorySummaryDto> rows;
+        if (hasKeyword) {
+            // Search index still building
+            rows = storyRepository.searchSummaryPageByStatus(StoryStatus.PUBLISHED, likePattern(keyword), after.at(), after.id(), fetch);
         } else {
-            return storyRepository.findByStatusOrderByCreatedAtDesc(StoryStatus.PUBLISHED);
+            rows = storyRepository.findSummaryPageByStatus(StoryStatus.PUBLISHED, after.at(), after.id(), fetch);
         }
+        return CursorPage.of(withStyles(rows), pageSize, StoryServiceImpl::cursorOf);
     }
 
     @Override
-    public List<Story> getStoriesByStatus(String userId, StoryStatus status, String keyword) {
+    public CursorPage<StorySummaryDto> getStoriesByStatus(String userId, StoryStatus status, String keyword, String cursor, Integer limit) {
         if (userId == null) {
             // Guests can only see PUBLISHED stories, no filtering by other statuses
-            return List.of();
+            return new CursorPage<>(List.of(), null);
         }
 
-        if (keyword != null && !keyword.isBlank()) {
+        int pageSize = PageCursor.clampLimit(limit);
+        boolean hasKeyword = keyword != null && !keyword.isBlank();
+        if (hasKeyword && storySearchIndex.isReady()) {
+            return storySearchIndex.search(keyword, status, userId, cursor, pageSize);
+        }
+        PageCursor after = PageCursor.decode(cursor);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<StorySummaryDto> rows;
+        if (hasKeyword) {
             // Combined search by user, status, and keyword
-            return storyRepository
-                    .findByUserIdAndStatusAndTitleZhContainingIgnoreCaseOrUserIdAndStatusAndTitleEnContainingIgnoreCaseOrderByCreatedAtDesc(
-                            userId, status, keyword, userId, status, keyword);
+            rows = storyRepository.searchSummaryPageByUserIdAndStatus(userId, status, likePattern(keyword), after.at(), after.id(), fetch);
         } else {
-            return storyRepository.findByUserIdAndStatusOrderByCreatedAtDesc(userId, status);
+            rows = storyRepository.findSummaryPageByUserIdAndStatus(userId, status, after.at(), after.id(), fetch);
+        }
+        return CursorPage.of(withStyles(rows), pageSize, StoryServiceImpl::cursorOf);
+    }
+
+    private static PageCursor cursorOf(StorySummaryDto story) {
+        return new PageCursor(story.getCreatedAt(), story.getId());
+    }
+
+    // One IN query for the styles of the whole page instead of a lazy load per story
+    private List<StorySummaryDto> withStyles(List<StorySummaryDto> stories) {
+        if (stories.isEmpty()) {
+            return stories;
         }
+        Map<String, List<StyleSummaryDto>> stylesByStory = storyStyleRepository
+                .findSummariesByStoryIdIn(stories.stream().map(StorySummaryDto::getId).toList()).stream()
+                .collect(Collectors.groupingBy(StyleSummaryDto::getStoryId));
+        for (StorySummaryDto story : stories) {
+            List<StyleSummaryDto> styles = stylesByStory.getOrDefault(story.getId(), List.of());
+            story.setStyles(styles);
+            story.setCoverImage(styles.isEmpty() ? null : styles.get(0).getCoverImage());
+        }
+        return stories;
+    }
+
+    // Case-insensitive "contains", with LIKE wildcards in the keyword matched literally
+    private static String likePattern(String keyword) {
+        String escaped = keyword.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
     }
 
     @Override
     public Optional<Story> getStoryById(String id) {
-        return storyRepository.findById(id);
+        // Lazy sync mode: a folder that was never synced is materialized on first access
+        return storyRepository.findById(id).or(() -> storyMaterializer.materialize(id));
+    }
+
+    @Override
+    public Optional<CachedResponse> getStoryMetadataResponse(String id) {
+        // Serialized while the request's persistence context is open, lazy pages load as before
+        return storyContentCache.get(id, StoryContentCache.Kind.METADATA,
+                storyId -> getStoryById(storyId).map(story -> storyResponseRenderer.render("m", story)));
+    }
+
+    @Override
+    public Optional<CachedResponse> getStoryDetailResponse(String id) {
+        // Content only changes on sync, the cache is invalidated by StoryChangedEvent
+        return storyContentCache.get(id, StoryContentCache.Kind.CONTENT,
+                storyId -> getStoryDetail(storyId).map(dto -> storyResponseRenderer.render("c", dto)));
     }
 
     @Override
     public Optional<StoryJsonDto> getStoryDetail(String id) {
         // Retrieve full content from DB first
         Optional<Story> storyOpt = storyRepository.findById(id);
+        if (needsMaterialization(storyOpt)) {
+            Optional<Story> materialized = storyMaterializer.materialize(id);
+            if (materialized.isPresent()) {
+                storyOpt = materialized;
+            }
+        }
 
         if (storyOpt.isPresent()) {
             Story story = storyOpt.get();
@@ -92,12 +178,16 @@ public class StoryServiceImpl implements StoryService {
                     p.setPageNumber(page.getPageNumber());
                     p.setTextZh(page.getTextZh());
                     p.setTextEn(page.getTextEn());
+                    p.setImageSrcset(page.getImageSrcset());
                     p.setAudioUrlZh(page.getAudioUrlZh());
                     p.setAudioUrlEn(page.getAudioUrlEn());
                     return p;
                 }).toList();
 
                 dto.setPages(pageDtos);
+                dto.setAudioTracks(storyAudioTrackRepository.findByStoryIdOrderByTrackKey(id).stream()
+                        .map(StoryServiceImpl::toAudioTrackDto)
+                        .toList());
                 return Optional.of(dto);
             }
         }
@@ -105,22 +195,23 @@ public class StoryServiceImpl implements StoryService {
         // Fallback to filesystem if DB pages are empty (e.g. old legacy stories not
         // fully synced)
         // Retrieve full content from filesystem
-        String styleId = storyRepository.findById(id).map(Story::getSelectedStyleId).orElse("default");
+        String styleId = storyOpt.map(Story::getSelectedStyleId).orElse("default");
 
-        // Try style-specific path first (MVP3)
-        File jsonFile = new File(storiesPath + File.separator + id + File.separator + styleId, "story.json");
+        // Candidate story.json paths are resolved from the asset index, not probed on disk
+        StoryAssets assets = storyAssetIndex.get(id);
+        File jsonFile = null;
 
-        // Fallback to root path (MVP2 compatibility)
-        if (!jsonFile.exists()) {
-            File rootJsonFile = new File(storiesPath + File.separator + id, "story.json");
-            if (rootJsonFile.exists()) {
-                jsonFile = rootJsonFile;
-            }
+        // Try style-specific path first (MVP3)
+        if (assets.storyJson(styleId) != null) {
+            jsonFile = new File(new File(assets.storyDir(), styleId), StoryAssetIndex.STORY_JSON);
+        } else if (assets.storyJson() != null) {
+            // Fallback to root path (MVP2 compatibility)
+            jsonFile = new File(assets.storyDir(), StoryAssetIndex.STORY_JSON);
         }
 
-        if (jsonFile.exists()) {
+        if (jsonFile != null) {
             try {
-                StoryJsonDto dto = objectMapper.readValue(jsonFile, StoryJsonDto.class);
+                StoryJsonDto dto = storyJsonReader.read(jsonFile);
                 return Optional.of(dto);
             } catch (IOException e) {
                 log.error("Error reading story detail for {}", id, e);
@@ -129,6 +220,26 @@ public class StoryServiceImpl implements StoryService {
         return Optional.empty();
     }
 
+    private static AudioTrackDto toAudioTrackDto(StoryAudioTrack track) {
+        AudioTrackDto dto = new AudioTrackDto();
+        dto.setLang(track.getLang());
+        dto.setUserId(track.getUserId());
+        dto.setUrl(track.getUrl());
+        dto.setDurationMs(track.getDurationMs());
+        dto.setPages(track.getPages());
+        return dto;
+    }
+
+    // No row yet, or a row whose pages were never synced. Stories still being generated are
+    // left to the N8N callback, which syncs them once the files are complete.
+    private boolean needsMaterialization(Optional<Story> storyOpt) {
+        if (!storyMaterializer.isEnabled()) {
+            return false;
+        }
+        return storyOpt.map(story -> story.getStatus() != StoryStatus.GENERATING && story.getPages().isEmpty())
+                .orElse(true);
+    }
+
     @Override
     @Transactional
     public String initiateStoryGeneration(String userId, String prompt, String style, Long voiceId) {
@@ -164,6 +275,7 @@ public class StoryServiceImpl implements StoryService {
 
         // Title and description will be filled after N8N callback and sync
         storyRepository.save(newStory);
+        eventPublisher.publishEvent(new StoryChangedEvent(storyId, StoryChangedEvent.Change.CREATED));
 
         // Trigger N8N webhook asynchronously
         n8nService.triggerN8NWebhook(storyId, prompt, style, userId, voicePath);
@@ -190,18 +302,28 @@ public class StoryServiceImpl implements StoryService {
         story.setCustomVoiceId(voiceId);
         story.setAudioStatus(StoryStatus.GENERATING);
         storyRepository.save(story);
+        eventPublisher.publishEvent(new StoryChangedEvent(storyId, StoryChangedEvent.Change.AUDIO));
 
         n8nService.triggerRedubWebhook(storyId, userId, voicePath);
         log.info("Redubbing initiated for story: {}", storyId);
     }
 
+    // Not transactional: the callback's own update commits first, then the file sync runs
+    // outside it so deriving images and joining audio do not hold the callback's DB connection
     @Override
-    @Transactional
     public void handleN8NCallback(String storyId, String status, String errorMessage, String type) {
+        Runnable fileSync = transactionTemplate.execute(tx -> applyN8NCallback(storyId, status, errorMessage, type));
+        if (fileSync != null) {
+            fileSync.run();
+        }
+    }
+
+    // Records the callback; returns the file sync to run after commit, if any
+    private Runnable applyN8NCallback(String storyId, String status, String errorMessage, String type) {
         Optional<Story> optionalStory = storyRepository.findById(storyId);
         if (optionalStory.isEmpty()) {
             log.error("N8N Callback received for non-existent storyId: {}", storyId);
-            return;
+            return null;
         }
 
         Story story = optionalStory.get();
@@ -213,14 +335,16 @@ public class StoryServiceImpl implements StoryService {
                 if ("SUCCESS".equalsIgnoreCase(status)) {
                     log.info("N8N Callback: Redub for Story {} SUCCESS.", storyId);
                     // Use story userId as per requirement "stroyid下创建一个userid的文件夹"
-                    storySyncService.syncCustomAudio(storyId, story.getUserId());
+                    String userId = story.getUserId();
+                    return () -> storySyncService.syncCustomAudio(storyId, userId);
                 } else {
                     log.warn("N8N Callback: Redub for Story {} FAILED. Error: {}", storyId, errorMessage);
                     story.setAudioStatus(StoryStatus.FAILED);
                     story.setErrorMessage(errorMessage);
                     storyRepository.save(story);
+                    eventPublisher.publishEvent(new StoryChangedEvent(storyId, StoryChangedEvent.Change.AUDIO));
                 }
-                return; // Redub handled, exit
+                return null; // Redub handled, exit
             }
 
             // Normal Generation Logic
@@ -231,23 +355,31 @@ public class StoryServiceImpl implements StoryService {
             }
 
             StoryStatus newStatus = StoryStatus.valueOf(normalizedStatus);
-            story.setStatus(newStatus);
             story.setErrorMessage(errorMessage);
-
             if (newStatus == StoryStatus.PUBLISHED) {
                 log.info("N8N Callback: Story {} generation SUCCESS. Triggering file sync.", storyId);
-                // Trigger story file sync after successful generation
-                storySyncService.syncStoryFiles(storyId); // Ensure this method can sync a single story
-            } else if (newStatus == StoryStatus.FAILED) {
+                storyRepository.save(story);
+                // The sync sets PUBLISHED (or FAILED) once the pages are written, after this commit
+                return () -> storySyncService.syncStoryFiles(storyId);
+            }
+            if (story.getStatus() != newStatus) {
+                eventPublisher.publishEvent(new StoryChangedEvent(storyId, StoryChangedEvent.Change.STATUS));
+            }
+            story.setStatus(newStatus);
+            if (newStatus == StoryStatus.FAILED) {
                 log.warn("N8N Callback: Story {} generation FAILED. Error: {}", storyId, errorMessage);
             }
             storyRepository.save(story); // Save here for normal flow
 
         } catch (IllegalArgumentException e) {
             log.error("N8N Callback received invalid status: {} for storyId: {}", status, storyId);
+            if (story.getStatus() != StoryStatus.FAILED) {
+                eventPublisher.publishEvent(new StoryChangedEvent(storyId, StoryChangedEvent.Change.STATUS));
+            }
             story.setStatus(StoryStatus.FAILED); // Set to failed for invalid status
             story.setErrorMessage("Invalid status received from N8N: " + status);
             storyRepository.save(story);
         }
+        return null;
     }
 }
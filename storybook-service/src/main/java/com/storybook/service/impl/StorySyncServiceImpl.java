@@ -1,21 +1,25 @@
 package com.storybook.service.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.storybook.dto.ReconcileReport;
 import com.storybook.dto.StoryJsonDto;
 import com.storybook.entity.Story;
 import com.storybook.entity.StoryPage;
 import com.storybook.entity.StoryStatus;
-import com.storybook.entity.StoryStyle;
-import com.storybook.repository.StoryPageRepository;
+import com.storybook.entity.StorySyncState;
 import com.storybook.repository.StoryRepository;
+import com.storybook.repository.StorySyncStateRepository;
+import com.storybook.service.StoryChangedEvent;
 import com.storybook.service.StorySyncService;
+import com.storybook.service.StorySyncService.SyncOutcome;
+import com.storybook.service.impl.StoryAssetIndex.FileStat;
+import com.storybook.service.impl.StoryAssetIndex.StoryAssets;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.File;
 import java.io.IOException;
@@ -23,8 +27,21 @@ import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
@@ -32,265 +49,494 @@ import java.util.Optional;
 public class StorySyncServiceImpl implements StorySyncService {
 
     private final StoryRepository storyRepository;
-    private final StoryPageRepository storyPageRepository;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StorySyncStateRepository storySyncStateRepository;
+    private final StoryAssetIndex storyAssetIndex;
+    private final StoryPageWriter storyPageWriter;
+    private final StoryImageDeriver storyImageDeriver;
+    private final StoryAudioTrackBuilder storyAudioTrackBuilder;
+    private final StoryJsonReader storyJsonReader;
+    private final StoryReconciler storyReconciler;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Watcher, sync jobs, lazy materialization and callbacks may sync the same story at once;
+    // its page diffs must not interleave, so each story syncs under one of these locks
+    private static final int LOCK_STRIPES = 256;
+    private final Lock[] storyLocks = IntStream.range(0, LOCK_STRIPES)
+            .mapToObj(i -> new ReentrantLock())
+            .toArray(Lock[]::new);
 
     @Value("${storybook.stories-path:../stories}")
     private String storiesPath;
 
+    @Value("${storybook.sync.parallelism:0}")
+    private int syncParallelism;
+
     @Override
-    @EventListener(ApplicationReadyEvent.class) // Auto-sync on startup
-    @Transactional
     public void syncStories() {
         log.info("Starting full story synchronization from path: {}", storiesPath);
-        File rootDir = new File(storiesPath);
+        long startedAt = System.currentTimeMillis();
+        List<String> storyIds = listStoryFolders();
+        if (storyIds.isEmpty()) {
+            return;
+        }
+
+        Map<SyncOutcome, Integer> counts = syncStoryFolders(storyIds, SyncListener.NONE);
+
+        // Sweep published stories whose folder is gone, only after a complete pass over the root
+        if (!counts.containsKey(SyncOutcome.CANCELLED)) {
+            reconcile(storyIds, false);
+        }
+        log.info("Full story synchronization completed in {} ms: {} folders, {}.",
+                System.currentTimeMillis() - startedAt, storyIds.size(), counts);
+    }
 
+    @Override
+    public List<String> listStoryFolders() {
+        File rootDir = new File(storiesPath);
         if (!rootDir.exists() || !rootDir.isDirectory()) {
             log.error("Stories directory not found: {}", rootDir.getAbsolutePath());
-            return;
+            return List.of();
         }
 
         File[] storyFolders = rootDir.listFiles(File::isDirectory);
-        if (storyFolders == null) {
+        if (storyFolders == null || storyFolders.length == 0) {
             log.info("No story folders found in {}.", rootDir.getAbsolutePath());
-            return;
+            return List.of();
         }
+        return Arrays.stream(storyFolders)
+                .map(File::getName)
+                .filter(name -> !name.startsWith("."))
+                .toList();
+    }
 
-        List<String> foundStoryIds = new ArrayList<>();
-        for (File folder : storyFolders) {
-            String storyId = folder.getName();
-            foundStoryIds.add(storyId);
-            log.info("Attempting to sync story folder: {}", storyId);
-            try {
-                // For full sync, we try to infer selectedStyleId if not set in DB
-                Optional<Story> existingStory = storyRepository.findById(storyId);
-                String styleToSync = null;
-
-                if (existingStory.isPresent() && existingStory.get().getSelectedStyleId() != null) {
-                    styleToSync = existingStory.get().getSelectedStyleId();
-                } else {
-                    // Try to find a style subfolder if no selected style is present in DB
-                    File[] styleSubFolders = folder.listFiles(File::isDirectory);
-                    if (styleSubFolders != null && styleSubFolders.length > 0) {
-                        styleToSync = styleSubFolders[0].getName(); // Take the first one found
-                        
-                        Story story;
-                        if (existingStory.isPresent()) {
-                            story = existingStory.get();
-                        } else {
-                            story = new Story();
-                            story.setId(storyId);
-                            story.setStatus(StoryStatus.PUBLISHED); // Assume existing files are published
-                        }
-                        story.setSelectedStyleId(styleToSync);
-                        storyRepository.save(story);
-                    }
+    @Override
+    public List<String> listUnsyncedStoryFolders() {
+        Set<String> synced = new HashSet<>(storySyncStateRepository.findAllStoryIds());
+        return listStoryFolders().stream().filter(id -> !synced.contains(id)).toList();
+    }
+
+    @Override
+    public Map<SyncOutcome, Integer> syncStoryFolders(List<String> storyIds, SyncListener listener) {
+        Map<SyncOutcome, Integer> counts = new EnumMap<>(SyncOutcome.class);
+        if (storyIds.isEmpty()) {
+            return counts;
+        }
+        int workers = resolveParallelism(storyIds.size());
+        log.info("Syncing {} story folders with {} workers.", storyIds.size(), workers);
+
+        // Each folder is synced in its own short transaction on a bounded pool, so one bad
+        // folder neither holds a huge persistence context open nor blocks the others.
+        ExecutorService executor = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("story-sync-"));
+        CompletionService<SyncOutcome> completionService = new ExecutorCompletionService<>(executor);
+        for (String storyId : storyIds) {
+            completionService.submit(() -> syncWithListener(storyId, listener));
+        }
+
+        int done = 0;
+        try {
+            for (; done < storyIds.size(); done++) {
+                SyncOutcome outcome;
+                try {
+                    outcome = completionService.take().get();
+                } catch (ExecutionException e) {
+                    log.error("Story sync worker failed: {}", e.getCause().getMessage());
+                    outcome = SyncOutcome.FAILED;
                 }
+                counts.merge(outcome, 1, Integer::sum);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Story synchronization interrupted with {} folders left.", storyIds.size() - done);
+            counts.merge(SyncOutcome.CANCELLED, storyIds.size() - done, Integer::sum);
+        } finally {
+            executor.shutdownNow();
+        }
+        return counts;
+    }
+
+    private SyncOutcome syncWithListener(String storyId, SyncListener listener) {
+        SyncOutcome outcome = SyncOutcome.FAILED; // Unless the sync returns, e.g. on an unexpected exception
+        try {
+            if (listener.isCancelled()) {
+                outcome = SyncOutcome.CANCELLED;
+            } else {
+                listener.beforeStory(storyId);
+                outcome = syncStoryFolder(storyId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = SyncOutcome.CANCELLED;
+        } finally {
+            listener.afterStory(storyId, outcome); // Keeps the job's counters in step with the outcomes
+        }
+        return outcome;
+    }
 
-                if (styleToSync != null) {
-                    syncStoryFilesInternal(storyId, styleToSync);
+    @Override
+    public SyncOutcome syncStoryFolder(String storyId) {
+        File folder = new File(storiesPath, storyId);
+        if (!folder.isDirectory()) {
+            log.info("Story folder {} no longer exists, reconciling.", storyId);
+            storyReconciler.reconcileRemovedFolder(storyId);
+            return SyncOutcome.SKIPPED;
+        }
+        Lock lock = storyLock(storyId);
+        lock.lock();
+        try {
+            StoryAssets assets = prepareAssets(storyId);
+            SyncOutcome outcome = syncFolderInOwnTransaction(folder, assets);
+            if (outcome == SyncOutcome.SYNCED) {
+                refreshAudioTracks(storyId, assets); // Skipped stories have unchanged MP3s (they are in the asset digest)
+            }
+            return outcome;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock storyLock(String storyId) {
+        return storyLocks[Math.floorMod(storyId.hashCode(), LOCK_STRIPES)];
+    }
+
+    // Image work happens before the transaction so it does not hold a DB connection.
+    // The folder is walked again only when new derivatives were written.
+    private StoryAssets prepareAssets(String storyId) {
+        StoryAssets assets = storyAssetIndex.refresh(storyId);
+        return storyImageDeriver.derive(assets) > 0 ? storyAssetIndex.refresh(storyId) : assets;
+    }
+
+    @Override
+    public ReconcileReport reconcile(boolean dryRun) {
+        List<String> storyIds = listStoryFolders();
+        if (storyIds.isEmpty()) {
+            ReconcileReport report = new ReconcileReport();
+            report.setDryRun(true);
+            report.setAbortedReason("No story folders found in " + new File(storiesPath).getAbsolutePath());
+            return report;
+        }
+        return reconcile(storyIds, dryRun);
+    }
+
+    @Override
+    public ReconcileReport reconcile(Collection<String> storyIdsOnDisk, boolean dryRun) {
+        return storyReconciler.reconcile(storyIdsOnDisk, dryRun);
+    }
+
+    private SyncOutcome syncFolderInOwnTransaction(File folder, StoryAssets assets) {
+        String storyId = folder.getName();
+        try {
+            SyncOutcome outcome = transactionTemplate.execute(status -> syncFolder(folder, assets));
+            return outcome != null ? outcome : SyncOutcome.FAILED;
+        } catch (Exception e) {
+            log.error("Error during full sync for story {}: {}", storyId, e.getMessage());
+            return SyncOutcome.FAILED;
+        }
+    }
+
+    private SyncOutcome syncFolder(File folder, StoryAssets assets) {
+        String storyId = folder.getName();
+        log.info("Attempting to sync story folder: {}", storyId);
+
+        // For full sync, we try to infer selectedStyleId if not set in DB
+        Optional<Story> existingStory = storyRepository.findById(storyId);
+        String styleToSync = null;
+
+        if (existingStory.isPresent() && existingStory.get().getSelectedStyleId() != null) {
+            styleToSync = existingStory.get().getSelectedStyleId();
+        } else {
+            // Try to find a style subfolder if no selected style is present in DB
+            styleToSync = inferStyle(assets);
+            if (styleToSync != null) {
+
+                Story story;
+                if (existingStory.isPresent()) {
+                    story = existingStory.get();
                 } else {
-                    log.warn("Skipping full sync for story {}: no selectedStyleId in DB and no style subfolders found.", storyId);
+                    story = new Story();
+                    story.setId(storyId);
+                    story.setStatus(StoryStatus.PUBLISHED); // Assume existing files are published
+                    publishChange(storyId, StoryChangedEvent.Change.CREATED);
                 }
-            } catch (Exception e) {
-                log.error("Error during full sync for story {}: {}", storyId, e.getMessage());
+                story.setSelectedStyleId(styleToSync);
+                storyRepository.save(story);
             }
         }
 
-        // TODO: Optionally, remove stories from DB that are no longer present in filesystem
-        log.info("Full story synchronization completed.");
+        if (styleToSync == null) {
+            log.warn("Skipping full sync for story {}: no selectedStyleId in DB and no style subfolders found.", storyId);
+            return SyncOutcome.SKIPPED;
+        }
+        SyncOutcome outcome = syncStoryFilesInternal(storyId, styleToSync, assets);
+        if (outcome == SyncOutcome.SYNCED) {
+            refreshCustomAudio(storyId, assets);
+        }
+        return outcome;
+    }
+
+    // Joined narration and custom dubbing tracks. Runs after the page transaction: the MP3s
+    // are read and written without a DB connection, then only the rows are stored.
+    private void refreshAudioTracks(String storyId, StoryAssets assets) {
+        String customUserId = storyRepository.findById(storyId)
+                .filter(story -> story.getUserId() != null && story.getAudioStatus() == StoryStatus.PUBLISHED)
+                .map(Story::getUserId)
+                .filter(assets::hasSubfolder)
+                .orElse(null);
+        storeAudioTracks(storyId, storyAudioTrackBuilder.build(storyId, assets, customUserId));
     }
 
+    private void storeAudioTracks(String storyId, List<StoryAudioTrackBuilder.TrackUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                storyAudioTrackBuilder.apply(storyId, updates);
+                publishChange(storyId, StoryChangedEvent.Change.AUDIO);
+            });
+        } catch (Exception e) {
+            // Readers fall back to the per-page files, the next sync retries
+            log.warn("Failed to store audio tracks of story {}: {}", storyId, e.getMessage());
+        }
+    }
+
+    // Re-apply finished custom dubbing from stories/{storyId}/{userId}, which a page rewrite would otherwise drop
+    private void refreshCustomAudio(String storyId, StoryAssets assets) {
+        storyRepository.findById(storyId)
+                .filter(story -> story.getUserId() != null && story.getAudioStatus() == StoryStatus.PUBLISHED)
+                .filter(story -> assets.hasSubfolder(story.getUserId()))
+                .ifPresent(story -> {
+                    applyCustomAudio(story, story.getUserId(), assets);
+                    storyRepository.save(story);
+                    publishChange(storyId, StoryChangedEvent.Change.AUDIO);
+                });
+    }
+
+    // Prefer folders holding page images, so a user audio folder is never taken for a style
+    private String inferStyle(StoryAssets assets) {
+        List<String> candidates = assets.styles().isEmpty() ? assets.subfolderNames() : assets.styles();
+        return candidates.isEmpty() ? null : candidates.get(0);
+    }
+
+    private int resolveParallelism(int folderCount) {
+        // 0 (the default) means one worker per core, capped so the sync cannot drain the
+        // connection pool that request threads also depend on.
+        int workers = syncParallelism > 0 ? syncParallelism : Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        return Math.max(1, Math.min(workers, folderCount));
+    }
+
+    // Not transactional: images are derived first, then only the DB part runs in a transaction
     @Override
-    @Transactional
     public void syncStoryFiles(String storyId) {
         log.info("Starting single story synchronization for storyId: {}", storyId);
-        
+        Lock lock = storyLock(storyId);
+        lock.lock();
+        try {
+            StoryAssets assets = prepareAssets(storyId);
+            SyncOutcome outcome = transactionTemplate.execute(status -> syncStoryFiles(storyId, assets));
+            if (outcome == SyncOutcome.SYNCED) {
+                refreshAudioTracks(storyId, assets);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private SyncOutcome syncStoryFiles(String storyId, StoryAssets assets) {
         // 1. Fetch Story to get selectedStyleId
         Story story = storyRepository.findById(storyId).orElse(null);
         if (story == null) {
             log.error("Story not found: {}", storyId);
-            return;
+            return SyncOutcome.SKIPPED;
         }
 
         String styleId = story.getSelectedStyleId();
         if (styleId == null) {
              // Fallback: try to find style folder if null (similar to full sync logic)
-             File storyDir = new File(storiesPath, storyId);
-             if (storyDir.exists() && storyDir.isDirectory()) {
-                 File[] styleSubFolders = storyDir.listFiles(File::isDirectory);
-                 if (styleSubFolders != null && styleSubFolders.length > 0) {
-                     styleId = styleSubFolders[0].getName();
-                     story.setSelectedStyleId(styleId); // Update style id
-                     // Don't save yet, syncStoryFilesInternal will handle saving or we save here?
-                     // syncStoryFilesInternal re-fetches story. Let's save here.
-                     storyRepository.save(story);
-                 }
+             styleId = inferStyle(assets);
+             if (styleId != null) {
+                 story.setSelectedStyleId(styleId); // Update style id
+                 // Don't save yet, syncStoryFilesInternal will handle saving or we save here?
+                 // syncStoryFilesInternal re-fetches story. Let's save here.
+                 storyRepository.save(story);
              }
         }
         
         if (styleId == null) {
             log.error("Cannot sync story {}: No selected style ID and no style subfolder found.", storyId);
             updateStoryStatusAndError(storyId, StoryStatus.FAILED, "No style found for story.");
-            return;
+            return SyncOutcome.FAILED;
         }
 
-        syncStoryFilesInternal(storyId, styleId);
+        return syncStoryFilesInternal(storyId, styleId, assets);
     }
 
+    // Not transactional: the page URLs are updated in a transaction, the joined track is built after it
     @Override
-    @Transactional
     public void syncCustomAudio(String storyId, String userId) {
+        Lock lock = storyLock(storyId);
+        lock.lock();
+        try {
+            StoryAssets assets = storyAssetIndex.refresh(storyId);
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> syncCustomAudio(storyId, userId, assets)))) {
+                storeAudioTracks(storyId, storyAudioTrackBuilder.buildCustom(storyId, userId, assets));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean syncCustomAudio(String storyId, String userId, StoryAssets assets) {
         Optional<Story> optionalStory = storyRepository.findById(storyId);
         if (optionalStory.isEmpty()) {
             log.error("Story {} not found for custom audio sync.", storyId);
-            return;
+            return false;
         }
         Story story = optionalStory.get();
-        Long customVoiceId = story.getCustomVoiceId(); // Folder name is based on customVoiceId as per logic, but N8N might use userId. Let's check requirements.
-        
         // Requirement said: "stroyid下创建一个userid的文件夹"
         // So we look for: stories/{storyId}/{userId}
         File customAudioDir = new File(storiesPath + File.separator + storyId + File.separator + userId);
-        
-        if (!customAudioDir.exists() || !customAudioDir.isDirectory()) {
+
+        if (!assets.hasSubfolder(userId)) {
             log.warn("Custom audio directory not found: {}", customAudioDir.getAbsolutePath());
             story.setAudioStatus(StoryStatus.FAILED);
             story.setErrorMessage("Custom audio files not generated.");
             storyRepository.save(story);
-            return;
+            publishChange(storyId, StoryChangedEvent.Change.AUDIO);
+            return false;
         }
 
         log.info("Syncing custom audio from: {}", customAudioDir.getAbsolutePath());
 
         // Update pages
-        if (story.getPages() != null) {
-            for (StoryPage page : story.getPages()) {
-                // Assuming only Chinese for now as per N8N spec
-                String audioFileName = "page-" + page.getPageNumber() + ".mp3";
-                File audioFile = new File(customAudioDir, audioFileName);
-                
-                if (audioFile.exists()) {
-                    // URL Format: /stories/{storyId}/{userId}/{filename}
-                    // Need to ensure file-server serves this structure.
-                    // Assuming file-server maps /stories to the stories root.
-                    page.setCustomAudioUrlZh("/stories/" + storyId + "/" + userId + "/" + audioFileName);
-                }
-            }
-        }
-        
+        applyCustomAudio(story, userId, assets);
+
         story.setAudioStatus(StoryStatus.PUBLISHED); // Using PUBLISHED to mean Completed for audio status
         storyRepository.save(story);
+        publishChange(storyId, StoryChangedEvent.Change.AUDIO);
         log.info("Custom audio sync completed for story: {}", storyId);
+        return true;
+    }
+
+    private void applyCustomAudio(Story story, String userId, StoryAssets assets) {
+        if (story.getPages() == null) {
+            return;
+        }
+        for (StoryPage page : story.getPages()) {
+            // Assuming only Chinese for now as per N8N spec
+            String audioFileName = "page-" + page.getPageNumber() + ".mp3";
+
+            if (assets.hasCustomAudio(userId, page.getPageNumber())) {
+                // URL Format: /stories/{storyId}/{userId}/{filename}
+                // Need to ensure file-server serves this structure.
+                // Assuming file-server maps /stories to the stories root.
+                page.setCustomAudioUrlZh(StoryPageWriter.versioned("/stories/" + story.getId() + "/" + userId + "/" + audioFileName,
+                        assets.version(userId, audioFileName)));
+            }
+        }
     }
 
-    private void syncStoryFilesInternal(String storyId, String styleId) {
+    private SyncOutcome syncStoryFilesInternal(String storyId, String styleId, StoryAssets assets) {
         // The story.json is now directly under the storyId folder, not a style subfolder.
-        File storyJsonFile = new File(storiesPath + File.separator + storyId, "story.json");
+        File storyJsonFile = new File(assets.storyDir(), StoryAssetIndex.STORY_JSON);
+        FileStat storyJsonStat = assets.storyJson();
         
         log.info("Attempting to sync story JSON file from path: {}", storyJsonFile.getAbsolutePath());
 
-        if (!storyJsonFile.exists()) {
+        if (storyJsonStat == null) {
             log.warn("Story JSON file not found for storyId: {}. Path: {}. Setting status to FAILED.", storyId, storyJsonFile.getAbsolutePath());
             updateStoryStatusAndError(storyId, StoryStatus.FAILED, "Story JSON file not found at: " + storyJsonFile.getAbsolutePath());
-            return;
+            return SyncOutcome.FAILED;
         }
 
         try {
-            StoryJsonDto dto = objectMapper.readValue(storyJsonFile, StoryJsonDto.class);
-
             // Fetch story again to ensure latest state and avoid detached entity issues
             Story story = storyRepository.findById(storyId).orElseThrow(() -> new RuntimeException("Story not found during internal sync: " + storyId));
-            
-            story.setTitleZh(dto.getTitleZh());
-            story.setTitleEn(dto.getTitleEn());
-            story.setDescription(dto.getFullStory() != null && !dto.getFullStory().isBlank() ? dto.getFullStory().substring(0, Math.min(dto.getFullStory().length(), 200)) : "");
-            story.setStatus(StoryStatus.PUBLISHED); // Mark as published after successful sync
-            story.setUpdatedAt(LocalDateTime.now());
 
-            // Clear and recreate pages
-            storyPageRepository.deleteByStoryId(storyId); // Delete all pages for this story
-            story.getPages().clear(); // Clear collection to reflect changes
-            dto.getPages().forEach(pageDto -> {
-                StoryPage page = new StoryPage();
-                page.setStory(story);
-                page.setPageNumber(pageDto.getPageNumber());
-                page.setTextZh(pageDto.getTextZh());
-                page.setTextEn(pageDto.getTextEn());
-                // Image URL still depends on selectedStyleId
-                page.setImageUrl(getCoverImagePath(storyId, styleId, pageDto.getPageNumber()));
-                
-                // Audio Logic
-                // 1. Check file system existence
-                // storiesPath is typically "../stories" or absolute path to stories root
-                String audioFileNameZh = "page-" + pageDto.getPageNumber() + "-zh.mp3";
-                File audioFileZh = new File(storiesPath + File.separator + storyId, audioFileNameZh);
-                
-                if (audioFileZh.exists()) {
-                    // 2. Set Web URL path
-                    page.setAudioUrlZh("/stories/" + storyId + "/" + audioFileNameZh);
+            // Skip stories whose files are unchanged since the last successful sync
+            StorySyncState syncState = storySyncStateRepository.findById(storyId).orElseGet(() -> new StorySyncState(storyId));
+            String assetDigest = StoryFingerprints.assetDigest(assets, styleId);
+            String jsonHash = null;
+            if (story.getStatus() == StoryStatus.PUBLISHED && !story.getPages().isEmpty()
+                    && styleId.equals(syncState.getStyleId()) && assetDigest.equals(syncState.getAssetDigest())) {
+                if (Long.valueOf(storyJsonStat.size()).equals(syncState.getJsonSize())
+                        && Long.valueOf(storyJsonStat.lastModified()).equals(syncState.getJsonModifiedAt())) {
+                    log.debug("Story {} unchanged since last sync, skipping.", storyId);
+                    return SyncOutcome.SKIPPED;
                 }
-                
-                String audioFileNameEn = "page-" + pageDto.getPageNumber() + "-en.mp3";
-                File audioFileEn = new File(storiesPath + File.separator + storyId, audioFileNameEn);
-                
-                if (audioFileEn.exists()) {
-                    page.setAudioUrlEn("/stories/" + storyId + "/" + audioFileNameEn);
+                // Touched but possibly not modified (e.g. copied): fall back to the content hash
+                jsonHash = StoryFingerprints.fileHash(storyJsonFile);
+                if (jsonHash.equals(syncState.getJsonHash())) {
+                    log.debug("Story {} story.json content unchanged, skipping.", storyId);
+                    syncState.setJsonSize(storyJsonStat.size());
+                    syncState.setJsonModifiedAt(storyJsonStat.lastModified());
+                    storySyncStateRepository.save(syncState);
+                    return SyncOutcome.SKIPPED;
                 }
+            }
 
-                story.getPages().add(page);
-            });
+            // Parse the whole file before touching the managed pages, so a malformed story.json
+            // leaves nothing half-applied for the FAILED save to flush
+            List<StoryJsonDto.PageDto> pageDtos = new ArrayList<>();
+            StoryJsonDto dto = storyJsonReader.stream(storyJsonFile, pageDtos::add);
+            StoryPageWriter.PageDiff pageDiff = storyPageWriter.begin(story, styleId, assets);
+            pageDtos.forEach(pageDiff::write);
+            if (pageDiff.pageCount() == 0) {
+                throw new IOException("story.json contains no pages");
+            }
+
+            StoryStatus previousStatus = story.getStatus();
+            story.setTitleZh(dto.getTitleZh());
+            story.setTitleEn(dto.getTitleEn());
+            story.setDescription(dto.getFullStory() != null && !dto.getFullStory().isBlank() ? dto.getFullStory() : ""); // Already cut to 200 chars
+            story.setStatus(StoryStatus.PUBLISHED); // Mark as published after successful sync
+            story.setUpdatedAt(LocalDateTime.now());
 
-            // Clear and recreate styles (assuming one generated style per story for now)
-            story.getStyles().clear();
-            StoryStyle newStyle = new StoryStyle(
-                story,
-                styleId, // Using styleId from path
-                dto.getStyleEn() != null && !dto.getStyleEn().isBlank() ? dto.getStyleEn() : styleId,
-                getCoverImagePath(storyId, styleId, 1) // Cover is always page 1 of the selected style
-            );
-            story.getStyles().add(newStyle);
+            String diffSummary = pageDiff.complete(
+                    dto.getStyleEn() != null && !dto.getStyleEn().isBlank() ? dto.getStyleEn() : styleId);
 
             storyRepository.save(story); // Saves story, cascades to pages and styles
-            log.info("Story {} (style {}) synced successfully.", storyId, styleId);
+
+            syncState.setStyleId(styleId);
+            syncState.setJsonSize(storyJsonStat.size());
+            syncState.setJsonModifiedAt(storyJsonStat.lastModified());
+            syncState.setJsonHash(jsonHash != null ? jsonHash : StoryFingerprints.fileHash(storyJsonFile));
+            syncState.setAssetDigest(assetDigest);
+            storySyncStateRepository.save(syncState);
+            publishChange(storyId, StoryChangedEvent.Change.CONTENT);
+            if (previousStatus != StoryStatus.PUBLISHED) {
+                publishChange(storyId, StoryChangedEvent.Change.STATUS);
+            }
+            log.info("Story {} (style {}) synced successfully: {}.", storyId, styleId, diffSummary);
+            return SyncOutcome.SYNCED;
 
         } catch (IOException e) {
             log.error("Failed to parse story.json for storyId: {}. Error: {}", storyId, e.getMessage());
             updateStoryStatusAndError(storyId, StoryStatus.FAILED, "Failed to parse story.json: " + e.getMessage());
+            return SyncOutcome.FAILED;
         } catch (Exception e) {
             log.error("Unexpected error during story sync for storyId: {}. Error: {}", storyId, e.getMessage());
             updateStoryStatusAndError(storyId, StoryStatus.FAILED, "Unexpected error during sync: " + e.getMessage());
+            return SyncOutcome.FAILED;
         }
     }
 
     // Helper to update story status and error message
     private void updateStoryStatusAndError(String storyId, StoryStatus status, String errorMessage) {
         storyRepository.findById(storyId).ifPresent(story -> {
+            boolean statusChanged = story.getStatus() != status;
             story.setStatus(status);
             story.setErrorMessage(errorMessage);
             story.setUpdatedAt(LocalDateTime.now());
             storyRepository.save(story);
+            if (statusChanged) {
+                publishChange(storyId, StoryChangedEvent.Change.STATUS);
+            }
         });
     }
 
-    // Adjusted to accept pageNumber
-    private String getCoverImagePath(String storyId, String styleName, int pageNumber) {
-        return "/stories/" + storyId + File.separator + styleName + File.separator + "page-" + pageNumber + ".png";
-    }
-
-    private String getAudioPath(String storyId, int pageNumber, String lang) {
-        // /stories/{storyId}/page-{pageNumber}-{lang}.mp3
-        return "/stories/" + storyId + "/page-" + pageNumber + "-" + lang + ".mp3";
+    // Delivered to listeners after the surrounding transaction commits
+    private void publishChange(String storyId, StoryChangedEvent.Change change) {
+        eventPublisher.publishEvent(new StoryChangedEvent(storyId, change));
     }
-
-    // Original getCoverImagePath, kept for backward compatibility if needed, but the new one is more precise
-    private String getCoverImagePath(String storyId, String styleName) {
-        return getCoverImagePath(storyId, styleName, 1);
-    }
-
-    // Renamed from processStoryFolder to be more explicit about internal use
-    // This method is no longer used by syncStories directly, syncStories will call syncStoryFilesInternal
-    // private void processStoryFolder(File folder) {
-    //     // ... original logic, now moved into syncStoryFilesInternal
-    // }
 }
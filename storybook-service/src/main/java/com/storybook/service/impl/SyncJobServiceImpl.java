@@ -0,0 +1,343 @@
+package com.storybook.service.impl;
+
+import com.storybook.dto.ReconcileReport;
+import com.storybook.dto.SyncJobStatus;
+import com.storybook.service.StorySyncService;
+import com.storybook.service.StorySyncService.SyncListener;
+import com.storybook.service.StorySyncService.SyncMode;
+import com.storybook.service.StorySyncService.SyncOutcome;
+import com.storybook.service.SyncJobService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs story syncs as background jobs, one at a time, so startup and admin-triggered
+ * rescans never block a request thread. Each job tracks its own progress, can be
+ * cancelled between stories and is throttled to leave DB capacity for request traffic.
+ */
+@Service
+@Slf4j
+public class SyncJobServiceImpl implements SyncJobService {
+
+    private static final int HISTORY_SIZE = 20; // Jobs kept for polling
+
+    private final StorySyncService storySyncService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("sync-job-"));
+
+    // Newest last; the oldest entries drop off once the history is full, whatever their state,
+    // so a job stuck RUNNING can't grow it without bound
+    private final Map<String, SyncJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SyncJob> eldest) {
+            return size() > HISTORY_SIZE;
+        }
+    });
+
+    // Still cancelled on shutdown after it has dropped out of the history
+    private volatile SyncJob currentJob;
+
+    private volatile SyncReadiness readiness = SyncReadiness.PENDING;
+
+    @Value("${storybook.sync.startup:true}")
+    private boolean startupSync;
+
+    // Keep the readiness probe DOWN until the startup sync is done
+    @Value("${storybook.sync.block-readiness:false}")
+    private boolean blockReadiness;
+
+    // 0 = unlimited; shared by all workers of a job
+    @Value("${storybook.sync.max-stories-per-second:0}")
+    private double maxStoriesPerSecond;
+
+    @Value("${storybook.sync.mode:EAGER}")
+    private SyncMode syncMode;
+
+    // Lazy mode crawl runs well below request traffic
+    @Value("${storybook.sync.lazy.crawl-stories-per-second:5}")
+    private double crawlStoriesPerSecond;
+
+    public SyncJobServiceImpl(StorySyncService storySyncService, ApplicationEventPublisher eventPublisher) {
+        this.storySyncService = storySyncService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startupSync() {
+        if (syncMode == SyncMode.LAZY) {
+            // Stories are materialized on first access; a throttled crawl fills in the rest
+            readiness = SyncReadiness.READY;
+            SyncJob job = submit(new SyncJob(JobType.CRAWL, List.of(), crawlStoriesPerSecond), false);
+            log.info("Lazy sync mode, background crawl queued as job {}.", job.id);
+            return;
+        }
+        if (!startupSync) {
+            readiness = SyncReadiness.READY;
+            return;
+        }
+        readiness = SyncReadiness.SYNCING;
+        SyncJob job = submit(new SyncJob(JobType.FULL, List.of(), maxStoriesPerSecond), true);
+        log.info("Startup story synchronization queued as job {}.", job.id);
+    }
+
+    // Spring Boot reports ACCEPTING_TRAFFIC right after ApplicationReadyEvent, hold it back while syncing
+    @EventListener
+    public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        if (blockReadiness && event.getState() == ReadinessState.ACCEPTING_TRAFFIC && readiness == SyncReadiness.SYNCING) {
+            AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        }
+    }
+
+    @Override
+    public SyncJobStatus startJob(List<String> storyIds) {
+        List<String> ids = storyIds != null ? storyIds.stream().distinct().toList() : List.of();
+        for (String id : ids) {
+            if (id == null || id.isBlank() || id.contains("/") || id.contains("\\") || id.startsWith(".")) {
+                throw new IllegalArgumentException("Invalid story id: " + id);
+            }
+        }
+        JobType type = ids.isEmpty() ? JobType.FULL : JobType.PARTIAL;
+        return submit(new SyncJob(type, ids, maxStoriesPerSecond), false).toStatus();
+    }
+
+    @Override
+    public List<SyncJobStatus> listJobs() {
+        List<SyncJob> snapshot;
+        synchronized (jobs) {
+            snapshot = new ArrayList<>(jobs.values());
+        }
+        Collections.reverse(snapshot);
+        return snapshot.stream().map(SyncJob::toStatus).toList();
+    }
+
+    @Override
+    public Optional<SyncJobStatus> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(SyncJob::toStatus);
+    }
+
+    @Override
+    public Optional<SyncJobStatus> cancelJob(String jobId) {
+        SyncJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (!job.isFinished()) {
+            job.cancelRequested = true;
+            log.info("Cancellation requested for sync job {}.", jobId);
+        }
+        return Optional.of(job.toStatus());
+    }
+
+    @Override
+    public SyncReadiness getReadiness() {
+        return readiness;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (jobs) {
+            jobs.values().forEach(job -> job.cancelRequested = true);
+        }
+        SyncJob running = currentJob;
+        if (running != null) {
+            running.cancelRequested = true;
+        }
+        runner.shutdownNow();
+    }
+
+    private SyncJob submit(SyncJob job, boolean startup) {
+        jobs.put(job.id, job);
+        runner.submit(() -> run(job, startup));
+        return job;
+    }
+
+    private void run(SyncJob job, boolean startup) {
+        if (job.cancelRequested) {
+            job.finish("CANCELLED", null);
+            finishStartup(job, startup);
+            return;
+        }
+        currentJob = job;
+        job.state = "RUNNING";
+        job.startedAt = LocalDateTime.now();
+        job.startedNanos = System.nanoTime();
+        try {
+            List<String> ids = switch (job.type) {
+                case FULL -> storySyncService.listStoryFolders();
+                case CRAWL -> storySyncService.listUnsyncedStoryFolders();
+                case PARTIAL -> job.storyIds;
+            };
+            job.total = ids.size();
+            log.info("Sync job {} started: {}, {} folders.", job.id, job.type, ids.size());
+
+            Map<SyncOutcome, Integer> counts = storySyncService.syncStoryFolders(ids, job);
+            boolean cancelled = job.cancelRequested || counts.containsKey(SyncOutcome.CANCELLED);
+
+            // Only a complete pass over the root may sweep stories missing on disk
+            if (job.type == JobType.FULL && !cancelled && !ids.isEmpty()) {
+                job.reconcile = storySyncService.reconcile(ids, false);
+            }
+            job.finish(cancelled ? "CANCELLED" : "COMPLETED", null);
+        } catch (Exception e) {
+            log.error("Sync job {} failed: {}", job.id, e.getMessage(), e);
+            job.finish("FAILED", e.getMessage());
+        } finally {
+            currentJob = null;
+        }
+        log.info("Sync job {} {} in {} ms: processed={}, synced={}, skipped={}, failed={}.", job.id, job.state,
+                TimeUnit.NANOSECONDS.toMillis(job.elapsedNanos()), job.processed.get(), job.synced.get(),
+                job.skipped.get(), job.failed.get());
+        finishStartup(job, startup);
+    }
+
+    private void finishStartup(SyncJob job, boolean startup) {
+        if (!startup) {
+            return;
+        }
+        readiness = "COMPLETED".equals(job.state) ? SyncReadiness.READY : SyncReadiness.FAILED;
+        if (blockReadiness) {
+            // A failed or cancelled startup sync still serves what is already in the DB
+            AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+        }
+    }
+
+    private enum JobType {
+        FULL,    // Every folder, then reconcile
+        PARTIAL, // Listed story ids only
+        CRAWL    // Lazy mode: folders never synced before
+    }
+
+    private final class SyncJob implements SyncListener {
+
+        private final String id = UUID.randomUUID().toString();
+        private final List<String> storyIds;
+        private final JobType type;
+        private final double maxPerSecond;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger synced = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger cancelled = new AtomicInteger();
+        private final AtomicLong nextPermitNanos = new AtomicLong();
+        private volatile boolean cancelRequested;
+        private volatile String state = "QUEUED";
+        private volatile int total;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile long startedNanos;
+        private volatile long finishedNanos;
+        private volatile String error;
+        private volatile ReconcileReport reconcile;
+
+        private SyncJob(JobType type, List<String> storyIds, double maxPerSecond) {
+            this.type = type;
+            this.storyIds = storyIds;
+            this.maxPerSecond = maxPerSecond;
+            this.total = storyIds.size();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelRequested;
+        }
+
+        // Simple rate limiter: each worker reserves the next free slot and sleeps until it
+        @Override
+        public void beforeStory(String storyId) throws InterruptedException {
+            if (maxPerSecond <= 0) {
+                return;
+            }
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / maxPerSecond);
+            long slot = nextPermitNanos.getAndUpdate(prev -> Math.max(prev, System.nanoTime()) + interval);
+            long wait = slot - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            if (cancelRequested) {
+                throw new InterruptedException("Sync job " + id + " cancelled");
+            }
+        }
+
+        @Override
+        public void afterStory(String storyId, SyncOutcome outcome) {
+            switch (outcome) {
+                case SYNCED -> synced.incrementAndGet();
+                case SKIPPED -> skipped.incrementAndGet();
+                case FAILED -> failed.incrementAndGet();
+                case CANCELLED -> {
+                    cancelled.incrementAndGet();
+                    return; // Not counted as processed
+                }
+            }
+            processed.incrementAndGet();
+        }
+
+        private boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        private void finish(String finalState, String errorMessage) {
+            error = errorMessage;
+            finishedNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            state = finalState;
+        }
+
+        private long elapsedNanos() {
+            if (startedNanos == 0) {
+                return 0;
+            }
+            return (finishedNanos != 0 ? finishedNanos : System.nanoTime()) - startedNanos;
+        }
+
+        private SyncJobStatus toStatus() {
+            SyncJobStatus status = new SyncJobStatus();
+            status.setJobId(id);
+            status.setType(type.name());
+            status.setState(state);
+            status.setTotal(total);
+            status.setProcessed(processed.get());
+            status.setSynced(synced.get());
+            status.setSkipped(skipped.get());
+            status.setFailed(failed.get());
+            status.setCancelled(cancelled.get());
+            status.setCreatedAt(createdAt);
+            status.setStartedAt(startedAt);
+            status.setFinishedAt(finishedAt);
+            status.setError(error);
+            status.setReconcile(reconcile);
+
+            double seconds = elapsedNanos() / 1e9;
+            int done = processed.get();
+            double rate = seconds > 0 ? done / seconds : 0;
+            status.setStoriesPerSecond(Math.round(rate * 10) / 10.0);
+            if ("RUNNING".equals(state) && rate > 0) {
+                status.setEtaSeconds((long) Math.ceil(Math.max(0, total - done) / rate));
+            }
+            return status;
+        }
+    }
+}
@@ -25,6 +25,13 @@ apiClient.interceptors.request.use(
     }
 );
 
+// List endpoints are keyset-paginated: each call returns one page, and the X-Next-Cursor
+// header (absent on the last page) is passed back as `cursor` to load the next one.
+export const PAGE_SIZE = 24;
+
+export const nextCursor = (response: { headers: any }): string | undefined =>
+    response.headers['x-next-cursor'] || undefined;
+
 export const api = {
     auth: {
         login: (credentials: any) => apiClient.post('/auth/login', credentials),
@@ -33,8 +40,8 @@ export const api = {
         changePassword: (data: any) => apiClient.post('/auth/change-password', data),
     },
     stories: {
-        list: (keyword?: string, status?: string) =>
-            apiClient.get('/stories', { params: { keyword, status } }),
+        list: (keyword?: string, status?: string, cursor?: string, limit: number = PAGE_SIZE) =>
+            apiClient.get('/stories', { params: { keyword, status, cursor, limit } }),
         get: (id: string) => apiClient.get(`/stories/${id}`),
         getContent: (id: string, guestId?: string) => apiClient.get(`/stories/${id}/content`, {
             headers: guestId ? { 'X-Guest-Id': guestId } : {}
@@ -42,7 +49,8 @@ export const api = {
         generate: (data: any) => apiClient.post('/stories/generate', data),
     },
     history: {
-        list: () => apiClient.get('/history'),
+        list: (cursor?: string, limit: number = PAGE_SIZE) =>
+            apiClient.get('/history', { params: { cursor, limit } }),
         record: (data: any) => apiClient.post('/history', data),
     },
     voices: {
@@ -1,39 +1,62 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useCallback } from 'react';
 import { StoryManifest } from '../types';
-import { api } from '../api/client';
+import { api, nextCursor } from '../api/client';
 
-export function useStoryManifest() {
+// Transform Backend API response to Frontend Manifest type
+const toManifest = (items: any[]): StoryManifest => items.map((item: any) => ({
+    id: item.id,
+    titleZh: item.titleZh,
+    titleEn: item.titleEn,
+    status: item.status, // Map status
+    userId: item.userId, // Map userId
+    styles: (item.styles || []).map((s: any) => ({
+        id: s.name, // Map backend 'name' to frontend 'id'
+        name: s.name,
+        nameEn: s.nameEn,
+        coverImage: s.coverImage
+    })),
+    defaultStyle: (item.styles && item.styles.length > 0) ? item.styles[0].name : ''
+}));
+
+// Loads the first page of the public feed (filtered by keyword on the server); loadMore appends the next one
+export function useStoryManifest(keyword?: string) {
   const [manifest, setManifest] = useState<StoryManifest>([]);
+  const [cursor, setCursor] = useState<string | undefined>();
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState<string | null>(null);
 
   useEffect(() => {
-    api.stories.list()
+    let active = true; // Ignore responses for a keyword that has since changed
+    setLoading(true);
+    api.stories.list(keyword || undefined)
       .then((res) => {
-        // Transform Backend API response to Frontend Manifest type
-        const data = res.data.map((item: any) => ({
-            id: item.id,
-            titleZh: item.titleZh,
-            titleEn: item.titleEn,
-            status: item.status, // Map status
-            userId: item.userId, // Map userId
-            styles: (item.styles || []).map((s: any) => ({
-                id: s.name, // Map backend 'name' to frontend 'id'
-                name: s.name,
-                nameEn: s.nameEn,
-                coverImage: s.coverImage
-            })),
-            defaultStyle: (item.styles && item.styles.length > 0) ? item.styles[0].name : ''
-        }));
-        setManifest(data);
+        if (!active) return;
+        setManifest(toManifest(res.data));
+        setCursor(nextCursor(res));
+        setError(null);
         setLoading(false);
       })
       .catch((err) => {
+        if (!active) return;
         console.error(err);
         setError('Failed to load stories from server');
         setLoading(false);
       });
-  }, []);
+    return () => { active = false; };
+  }, [keyword]);
+
+  const loadMore = useCallback(() => {
+    if (!cursor || loadingMore) return;
+    setLoadingMore(true);
+    api.stories.list(keyword || undefined, undefined, cursor)
+      .then((res) => {
+        setManifest(prev => [...prev, ...toManifest(res.data)]);
+        setCursor(nextCursor(res));
+      })
+      .catch((err) => console.error(err))
+      .finally(() => setLoadingMore(false));
+  }, [cursor, keyword, loadingMore]);
 
-  return { manifest, loading, error };
+  return { manifest, loading, error, hasMore: !!cursor, loadingMore, loadMore };
 }
@@ -1,4 +1,3 @@
-import { useState, useEffect } from 'react';
 import { useQuery } from '@tanstack/react-query'; // Assuming @tanstack/react-query is installed
 import { Story, StoryStatus } from '../types';
 import { api } from '../api/client';
@@ -10,6 +9,10 @@ interface UseUserStoriesOptions {
     enabled?: boolean; // Controls whether the query runs
 }
 
+// Statuses a user's own stories can be in; the backend scopes ?status= lists to the caller
+const OWN_STATUSES = [StoryStatus.GENERATING, StoryStatus.PUBLISHED, StoryStatus.FAILED];
+
+// The newest page of the current user's stories, not the full list
 export function useUserStories({ userId, status, keyword, enabled = true }: UseUserStoriesOptions) {
     const queryKey = ['userStories', userId, status, keyword];
 
@@ -21,23 +24,12 @@ export function useUserStories({ userId, status, keyword, enabled = true }: UseU
         queryFn: async () => {
             if (!userId) return [];
             // Backend API: GET /api/stories?status={status}&keyword={keyword}
-            // The backend identifies the user via the Authentication token, so we don't need to pass userId as a param.
-            
-            // Fix: api.stories.list accepts (keyword, status). 
-            // We were passing (keyword, userId, status) which was wrong.
-            const response = await api.stories.list(keyword, status ? status.toString() : undefined);
-            
-            // Important: The backend /api/stories endpoint logic for logged-in users currently returns ALL stories (public + own).
-            // But useUserStories is intended to fetch ONLY the current user's stories.
-            // We need to filter the response here on the client side, 
-            // OR ensure the backend has an endpoint specifically for "my stories".
-            // Given the current backend logic:
-            // if status is provided, it returns stories matching that status for the user.
-            // if status is NOT provided, it returns ALL stories.
-            
-            // Let's filter by userId to be safe, assuming the API returns a mixed list or we want to be sure.
-            const allStories: Story[] = response.data;
-            return allStories.filter(story => story.userId === userId);
+            // With a status the backend returns only the authenticated user's stories, so without
+            // one we ask for the first page of each status instead of scanning the public feed.
+            const responses = await Promise.all((status ? [status] : OWN_STATUSES)
+                .map(s => api.stories.list(keyword, s.toString())));
+            const stories: Story[] = responses.flatMap(response => response.data);
+            return stories.sort((a, b) => b.createdAt.localeCompare(a.createdAt));
         },
         enabled: enabled && !!userId, // Only run if userId is present and enabled is true
         refetchInterval: (data) => {
@@ -1,14 +1,14 @@
 import React, { useEffect, useState } from 'react';
-import { api } from '../api/client';
+import { api, nextCursor } from '../api/client';
 import { Layout } from '../components/Layout';
 import { Link, useNavigate } from 'react-router-dom';
-import { useStoryManifest } from '../hooks/useStoryManifest';
 import { getAssetUrl } from '../utils/url';
 
 interface HistoryItem {
     storyId: string;
     storyTitle: string;
     styleName: string;
+    coverImage?: string;
     currentPage: number;
     durationSeconds: number;
     updatedAt: string;
@@ -16,17 +16,33 @@ interface HistoryItem {
 
 export const Bookshelf: React.FC = () => {
     const [history, setHistory] = useState<HistoryItem[]>([]);
+    const [cursor, setCursor] = useState<string | undefined>();
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
     const navigate = useNavigate();
-    const { manifest } = useStoryManifest(); // To get cover images
 
     useEffect(() => {
         api.history.list()
-            .then(res => setHistory(res.data))
+            .then(res => {
+                setHistory(res.data);
+                setCursor(nextCursor(res));
+            })
             .catch(() => {})
             .finally(() => setLoading(false));
     }, []);
 
+    const loadMore = () => {
+        if (!cursor || loadingMore) return;
+        setLoadingMore(true);
+        api.history.list(cursor)
+            .then(res => {
+                setHistory(prev => [...prev, ...res.data]);
+                setCursor(nextCursor(res));
+            })
+            .catch(() => {})
+            .finally(() => setLoadingMore(false));
+    };
+
     const formatDuration = (seconds: number) => {
         const mins = Math.floor(seconds / 60);
         if (mins < 1) return '< 1分钟';
@@ -34,12 +50,8 @@ export const Bookshelf: React.FC = () => {
         return `${(mins / 60).toFixed(1)} 小时`;
     };
 
-    const getCoverImage = (item: HistoryItem) => {
-        const story = manifest.find(s => s.id === item.storyId);
-        if (!story) return '';
-        const style = story.styles.find(s => s.name === item.styleName) || story.styles[0];
-        return style ? getAssetUrl(style.coverImage) : '';
-    };
+    // The history endpoint returns the cover of the style being read
+    const getCoverImage = (item: HistoryItem) => item.coverImage ? getAssetUrl(item.coverImage) : '';
 
     return (
         <Layout>
@@ -85,6 +97,14 @@ export const Bookshelf: React.FC = () => {
                         ))}
                     </div>
                 )}
+
+                {!loading && cursor && (
+                    <div className="flex justify-center mt-8">
+                        <button onClick={loadMore} disabled={loadingMore} className="text-blue-500 font-bold disabled:opacity-60">
+                            {loadingMore ? '加载中...' : '加载更多'}
+                        </button>
+                    </div>
+                )}
             </div>
         </Layout>
     );
@@ -2,6 +2,7 @@ import React, { useState } from 'react';
 import { api } from '../api/client';
 import { Layout } from '../components/Layout';
 import { useNavigate } from 'react-router-dom';
+import { useAuth } from '../context/AuthContext';
 
 export const ChangePassword: React.FC = () => {
     const [oldPassword, setOldPassword] = useState('');
@@ -10,6 +11,7 @@ export const ChangePassword: React.FC = () => {
     const [msg, setMsg] = useState('');
     const [isError, setIsError] = useState(false);
     const navigate = useNavigate();
+    const { login } = useAuth();
 
     const validatePassword = (pwd: string) => {
         if (pwd.length < 8) return false;
@@ -39,7 +41,9 @@ export const ChangePassword: React.FC = () => {
         }
 
         try {
-            await api.auth.changePassword({ oldPassword, newPassword }); // Need to add to client.ts
+            const res = await api.auth.changePassword({ oldPassword, newPassword });
+            // Tokens issued before the change are revoked, keep the session with the new one
+            login(res.data.token, { id: res.data.id, username: res.data.username });
             setMsg('修改成功！即将跳转...');
             setTimeout(() => navigate('/'), 1500);
         } catch (err: any) {
@@ -22,6 +22,7 @@ const CreateStoryPage: React.FC = () => {
     const [isLoading, setIsLoading] = useState(false);
     const [error, setError] = useState<string | null>(null);
 
+    // Styles seen on the first page of the feed; every style appears there in practice
     const availableStyles: StoryStyle[] = useMemo(() => {
         const uniqueStyles = new Map<string, StoryStyle>();
         manifest.forEach(story => {
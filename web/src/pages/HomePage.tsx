@@ -1,4 +1,4 @@
-import React, { useState } from 'react';
+import React, { useState, useEffect } from 'react';
 import { Layout } from '../components/Layout';
 import { useStoryManifest } from '../hooks/useStoryManifest';
 import { StoryCard } from '../components/StoryCard'; // Assuming this component exists, if not need to create or mock
@@ -8,21 +8,25 @@ import { useAuth } from '../context/AuthContext';
 import { useUserStories } from '../hooks/useUserStories';
 
 const HomePage: React.FC = () => {
-    const { manifest, loading: manifestLoading } = useStoryManifest();
     const { user } = useAuth();
     const [searchTerm, setSearchTerm] = useState('');
+    const [keyword, setKeyword] = useState('');
     const navigate = useNavigate();
 
+    // Search runs on the server, so only query once typing pauses
+    useEffect(() => {
+        const timer = setTimeout(() => setKeyword(searchTerm.trim()), 300);
+        return () => clearTimeout(timer);
+    }, [searchTerm]);
+
+    const { manifest, loading: manifestLoading, hasMore, loadingMore, loadMore } = useStoryManifest(keyword);
+
     // Use useUserStories for "My Stories" section (polling enabled)
     const { userStories, isLoading: userStoriesLoading } = useUserStories({
         userId: user?.id ? String(user.id) : null,
         enabled: !!user
     });
 
-    const filteredManifest = manifest.filter(story =>
-        (story.titleZh?.includes(searchTerm) || story.titleEn?.toLowerCase().includes(searchTerm.toLowerCase()))
-    );
-
     return (
         <Layout showFooter>
             {/* Hero Section */}
@@ -84,7 +88,7 @@ const HomePage: React.FC = () => {
                 <section>
                     <div className="flex items-center justify-between mb-8">
                         <h2 className="text-3xl font-bold text-gray-800 border-l-8 border-blue-500 pl-4">精选绘本</h2>
-                        <span className="text-gray-500 text-sm">共 {filteredManifest.length} 本书</span>
+                        <span className="text-gray-500 text-sm">已加载 {manifest.length}{hasMore ? '+' : ''} 本书</span>
                     </div>
 
                     {manifestLoading ? (
@@ -93,13 +97,26 @@ const HomePage: React.FC = () => {
                         </div>
                     ) : (
                         <div className="grid grid-cols-1 sm:grid-cols-2 lg:grid-cols-4 gap-8">
-                            {filteredManifest.map((story) => (
+                            {manifest.map((story) => (
                                 <StoryCard key={story.id} story={story} /> // Need to ensure StoryCard accepts this shape or adapt it
                             ))}
                         </div>
                     )}
 
-                    {!manifestLoading && filteredManifest.length === 0 && (
+                    {!manifestLoading && hasMore && (
+                        <div className="flex justify-center mt-10">
+                            <button
+                                onClick={loadMore}
+                                disabled={loadingMore}
+                                className="bg-blue-500 hover:bg-blue-600 disabled:opacity-60 text-white font-bold py-3 px-8 rounded-full shadow-md flex items-center gap-2"
+                            >
+                                {loadingMore && <Loader2 className="w-5 h-5 animate-spin" />}
+                                加载更多
+                            </button>
+                        </div>
+                    )}
+
+                    {!manifestLoading && manifest.length === 0 && (
                         <div className="text-center py-20 bg-gray-50 rounded-3xl">
                             <p className="text-gray-400 text-xl">没有找到相关故事，换个关键词试试？</p>
                         </div>
@@ -1,33 +1,22 @@
-import React, { useState, useEffect } from 'react';
+import React from 'react';
 import { Layout } from '../components/Layout';
 import { useAuth } from '../context/AuthContext';
-import { api } from '../api/client';
+import { useUserStories } from '../hooks/useUserStories';
 import { User, Crown, Clock, ShieldCheck, AlertCircle } from 'lucide-react';
 import { useNavigate } from 'react-router-dom';
 
 export const MemberInfoPage: React.FC = () => {
     const { user } = useAuth();
     const navigate = useNavigate();
-    const [creationCount, setCreationCount] = useState<number | null>(null);
-
-    useEffect(() => {
-        // In a real app, fetch count from backend stats endpoint.
-        // For MVP, we might infer it or just assume 0 if we can't fetch.
-        // Or fetch "My Stories" and count today's.
-        if (user) {
-            api.stories.list(undefined, undefined)
-                .then(res => {
-                    // Filter stories created today
-                    const today = new Date().toDateString();
-                    const count = res.data.filter((s: any) =>
-                        s.userId === String(user.id) &&
-                        new Date(s.createdAt).toDateString() === today
-                    ).length;
-                    setCreationCount(count);
-                })
-                .catch(() => setCreationCount(0));
-        }
-    }, [user]);
+    // In a real app, fetch count from backend stats endpoint.
+    // For MVP, count today's stories among the newest page of "My Stories" (far more than the daily limit).
+    const { userStories, isLoading, error } = useUserStories({
+        userId: user?.id ? String(user.id) : null,
+        enabled: !!user
+    });
+    const today = new Date().toDateString();
+    const creationCount: number | null = !user || isLoading ? null : error ? 0
+        : userStories.filter(s => new Date(s.createdAt).toDateString() === today).length;
 
     const isPro = false; // Mock status
     const limit = isPro ? 9 : 2;
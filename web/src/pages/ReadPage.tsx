@@ -2,7 +2,6 @@ import React, { useState, useEffect } from 'react';
 import { useParams, useSearchParams, useNavigate } from 'react-router-dom';
 import { Layout } from '../components/Layout';
 import { useStoryData } from '../hooks/useStoryData';
-import { useStoryManifest } from '../hooks/useStoryManifest';
 import { useMedia } from '../hooks/useMedia';
 import { api } from '../api/client';
 import { useAuth } from '../context/AuthContext';
@@ -24,10 +23,7 @@ const ReadPage: React.FC = () => {
 
   // ... (Error handling code kept same)
 
-  // 2. Fetch Manifest
-  const { manifest } = useStoryManifest();
-  
-  // 3. State Management
+  // 2. State Management
   const [langMode, setLangMode] = useState<LanguageMode>('zh');
   const [currentStyle, setCurrentStyle] = useState<string>('');
   const [currentPage, setCurrentPage] = useState(1);
@@ -36,7 +32,7 @@ const ReadPage: React.FC = () => {
   // Audio Player Hook
   const { isPlaying, play, pause, stop } = useAudioPlayer();
   
-  // 4. Responsive Check
+  // 3. Responsive Check
   const isDesktop = useMedia('(min-width: 768px)');
 
   // ... (Timer logic kept same)
@@ -52,25 +48,22 @@ const ReadPage: React.FC = () => {
         // Fallback to the style used for generation
         setCurrentStyle(story.selectedStyleId);
         setSearchParams({ style: story.selectedStyleId }, { replace: true });
-      } else if (manifest.length > 0) {
-        // Fallback to manifest default
-        const manifestItem = manifest.find(m => m.id === story.id);
-        if (manifestItem) {
-            const defaultStyle = manifestItem.defaultStyle || manifestItem.styles[0]?.id;
-            if (defaultStyle) {
-              setCurrentStyle(defaultStyle);
-              setSearchParams({ style: defaultStyle }, { replace: true });
-            }
-        }
+      } else if (story.styles && story.styles.length > 0) {
+        // Fallback to the story's first style
+        const defaultStyle = story.styles[0].name;
+        setCurrentStyle(defaultStyle);
+        setSearchParams({ style: defaultStyle }, { replace: true });
       }
     }
-  }, [story, manifest, searchParams, setSearchParams]);
-
-  // Derived: Available Styles
-  // Ensure we display the selected style even if not fully in manifest yet
-  const availableStyles: StoryStyle[] = manifest.find(m => m.id === id)?.styles || [];
-  // If user story has a selected style but it's not in manifest (e.g. sync lag), we should ideally construct it.
-  // For now, rely on manifest.
+  }, [story, searchParams, setSearchParams]);
+
+  // Derived: Available Styles, from the story content itself rather than the paginated feed
+  const availableStyles: StoryStyle[] = (story?.styles || []).map((s: any) => ({
+    id: s.name, // Map backend 'name' to frontend 'id'
+    name: s.name,
+    nameEn: s.nameEn,
+    coverImage: s.coverImage
+  }));
 
   if (storyLoading) return <div className="min-h-screen bg-[#5D4037] flex items-center justify-center text-white">正在打开绘本...</div>;
   if (storyError || !story) return <div className="min-h-screen bg-[#5D4037] flex items-center justify-center text-red-300">无法加载故事: {storyError}</div>;